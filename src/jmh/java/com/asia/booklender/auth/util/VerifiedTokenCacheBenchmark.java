@@ -0,0 +1,67 @@
+package com.asia.booklender.auth.util;
+
+import com.asia.booklender.shared.security.CurrentUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verification of a token sent again, with and without the verified token cache.
+ * <p>
+ * Run with {@code ./gradlew jmh}, results are written to {@code build/results/jmh}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerifiedTokenCacheBenchmark {
+    private VerifiedTokenCache uncached;
+    private VerifiedTokenCache cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        setField(jwtUtil, "secret", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        setField(jwtUtil, "expiration", 600_000L);
+        jwtUtil.init();
+
+        token = jwtUtil.generateToken(
+                User.withUsername("member@booklender.com").password("unused").roles("MEMBER").build(), 1L, "Member");
+
+        uncached = new VerifiedTokenCache(jwtUtil, false, 1000, new SimpleMeterRegistry());
+        cached = new VerifiedTokenCache(jwtUtil, true, 1000, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public CurrentUser uncached() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public CurrentUser cached() {
+        return cached.verify(token);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
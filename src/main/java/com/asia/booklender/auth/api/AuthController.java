@@ -2,17 +2,18 @@ package com.asia.booklender.auth.api;
 
 import com.asia.booklender.auth.dto.AuthRequest;
 import com.asia.booklender.auth.dto.AuthResponse;
+import com.asia.booklender.auth.dto.LogoutRequest;
+import com.asia.booklender.auth.dto.RefreshTokenRequest;
+import com.asia.booklender.auth.dto.RevokeTokenRequest;
 import com.asia.booklender.auth.service.AuthService;
 import com.asia.booklender.shared.api.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -35,4 +36,44 @@ public class AuthController {
         AuthResponse authResponse = authService.authenticate(request);
         return ResponseEntity.ok(ApiResponse.success(authResponse));
     }
+
+    /**
+     * Issues a new JWT token from a refresh token, without the password.
+     * The refresh token is single use: the response carries its successor.
+     *
+     * @param request the request containing the refresh token
+     * @return {@link AuthResponse} with the new JWT token and refresh token
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<AuthResponse>> refresh(@RequestBody @Valid RefreshTokenRequest request) {
+        AuthResponse authResponse = authService.refresh(request);
+        return ResponseEntity.ok(ApiResponse.success(authResponse));
+    }
+
+    /**
+     * Logs out by revoking the bearer token of the request, and the refresh token of the session when given.
+     *
+     * @param authorization the Authorization header, {@code Bearer <token>}
+     * @param request optional, the refresh token to revoke
+     * @return empty success response
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                                    @RequestBody(required = false) LogoutRequest request) {
+        String token = authorization.startsWith("Bearer ") ? authorization.substring(7) : authorization;
+        authService.logout(token, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.ok(ApiResponse.success(null));
+    }
+
+    /**
+     * Revokes a token before its expiry, e.g. a token of another device or a leaked token.
+     *
+     * @param request the token to revoke
+     * @return empty success response
+     */
+    @PostMapping("/revoke")
+    public ResponseEntity<ApiResponse<Void>> revoke(@RequestBody @Valid RevokeTokenRequest request) {
+        authService.revoke(request.getToken());
+        return ResponseEntity.ok(ApiResponse.success(null));
+    }
 }
@@ -12,6 +12,7 @@ import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 @JsonInclude(NON_NULL)
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String email;
     private String authority;
     private Long memberId;
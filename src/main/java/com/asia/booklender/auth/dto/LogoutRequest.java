@@ -0,0 +1,14 @@
+package com.asia.booklender.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogoutRequest {
+
+    /* Optional, revoked along with the access token */
+    private String refreshToken;
+}
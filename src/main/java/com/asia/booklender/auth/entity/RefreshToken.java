@@ -0,0 +1,50 @@
+package com.asia.booklender.auth.entity;
+
+import com.asia.booklender.shared.entity.BasedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.Instant;
+
+/**
+ * An opaque refresh token, stored by its SHA-256 digest only.
+ * <p>
+ * Every refresh rotates the token: the presented token is marked used and a new one is issued in the same family.
+ * A used token presented again means it leaked, and the whole family is revoked.
+ * </p>
+ */
+@Entity
+@Table(name = "refresh_tokens",
+        indexes = {
+                // Revocation of a whole family on reuse
+                @Index(name = "idx_family_id", columnList = "family_id"),
+
+                // Purge of expired tokens
+                @Index(name = "idx_refresh_expires_at", columnList = "expires_at")
+        })
+@Data
+@SuperBuilder(toBuilder = true)
+@EqualsAndHashCode(callSuper = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshToken extends BasedEntity {
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Column(name = "expires_at", nullable = false, columnDefinition = "TIMESTAMP")
+    private Instant expiresAt;
+
+    @Column(name = "used_at", columnDefinition = "TIMESTAMP")
+    private Instant usedAt;
+
+    @Column(name = "revoked_at", columnDefinition = "TIMESTAMP")
+    private Instant revokedAt;
+}
@@ -0,0 +1,37 @@
+package com.asia.booklender.auth.entity;
+
+import com.asia.booklender.shared.entity.BasedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.Instant;
+
+/**
+ * A JWT revoked before its expiry, identified by its jti. Kept until the token expires.
+ */
+@Entity
+@Table(name = "revoked_tokens",
+        indexes = {
+                // Incremental sync of the per-node revocation filters
+                @Index(name = "idx_revoked_token_created_at", columnList = "created_at"),
+
+                // Purge of expired revocations
+                @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at")
+        })
+@Data
+@SuperBuilder(toBuilder = true)
+@EqualsAndHashCode(callSuper = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedToken extends BasedEntity {
+    @Id
+    @Column(length = 64)
+    private String jti;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Column(name = "expires_at", nullable = false, columnDefinition = "TIMESTAMP")
+    private Instant expiresAt;
+}
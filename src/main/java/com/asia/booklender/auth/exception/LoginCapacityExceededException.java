@@ -0,0 +1,17 @@
+package com.asia.booklender.auth.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when the login lane is full: all password checks are running and the queue is full.
+ * The login can be retried after {@code retryAfterSeconds}.
+ */
+@Getter
+public class LoginCapacityExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public LoginCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
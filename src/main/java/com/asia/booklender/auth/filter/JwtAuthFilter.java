@@ -1,6 +1,8 @@
 package com.asia.booklender.auth.filter;
 
-import com.asia.booklender.auth.util.JwtUtil;
+import com.asia.booklender.auth.security.RevokedTokenRegistry;
+import com.asia.booklender.auth.util.VerifiedTokenCache;
+import com.asia.booklender.shared.security.CurrentUser;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,8 +12,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,8 +23,8 @@ import java.io.IOException;
 @Slf4j
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RevokedTokenRegistry revokedTokenRegistry;
 
     /**
      * Extracts and validates JWT from Authorization header.
@@ -76,31 +76,35 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     /**
      * Authenticates user and populates SecurityContext.
+     * <p>
+     * The token is parsed once, which verifies its signature and expiration. The principal is built straight from
+     * the verified claims, without loading the user. A token verified before is served from {@link VerifiedTokenCache}
+     * until it expires.
+     * </p>
      *
      * @param token user's token to authenticate.
      * @param request {@link HttpServletRequest}
      */
     private void authenticate(String token, HttpServletRequest request) {
-        String username = jwtUtil.extractUsername(token);
+        // Validate JWT integrity and expiration
+        CurrentUser currentUser = verifiedTokenCache.verify(token);
+
+        // Reject revoked tokens, answered from memory
+        if (revokedTokenRegistry.isRevoked(currentUser.getTokenId())) {
+            throw new JwtException("Token has been revoked");
+        }
 
         // Skip authentication if username is missing or already authenticated.
         // Some endpoints are public and Spring Security decides access later.
-        if (username == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+        if (currentUser.getUsername() == null || SecurityContextHolder.getContext().getAuthentication() != null) {
             return;
         }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-        // Validate JWT integrity and expiration
-        if (!jwtUtil.validateToken(token, userDetails)) {
-            throw new JwtException("Token validation failed");
-        }
-
         UsernamePasswordAuthenticationToken authentication =
                 new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        currentUser,
                         null, // password is not stored
-                        userDetails.getAuthorities()
+                        currentUser.getAuthorities()
                 );
 
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
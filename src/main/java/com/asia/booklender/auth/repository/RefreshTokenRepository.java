@@ -0,0 +1,39 @@
+package com.asia.booklender.auth.repository;
+
+import com.asia.booklender.auth.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    /**
+     * Marks a token used, only if it was not used or revoked yet.
+     * Of two concurrent refreshes with the same token, only one updates the row.
+     *
+     * @return 1 if the token was marked used, 0 otherwise
+     */
+    @Modifying
+    @Query("""
+            UPDATE RefreshToken t
+            SET t.usedAt = :now, t.updatedBy = t.subject
+            WHERE t.tokenHash = :tokenHash AND t.usedAt IS NULL AND t.revokedAt IS NULL
+            """)
+    int markUsed(@Param("tokenHash") String tokenHash, @Param("now") Instant now);
+
+    @Modifying
+    @Query("""
+            UPDATE RefreshToken t
+            SET t.revokedAt = :now, t.updatedBy = :revokedBy
+            WHERE t.familyId = :familyId AND t.revokedAt IS NULL
+            """)
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") Instant now, @Param("revokedBy") String revokedBy);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
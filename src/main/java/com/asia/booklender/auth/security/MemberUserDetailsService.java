@@ -0,0 +1,168 @@
+package com.asia.booklender.auth.security;
+
+import com.asia.booklender.member.entity.Member;
+import com.asia.booklender.member.event.MemberChangedEvent;
+import com.asia.booklender.member.repository.MemberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link UserDetailsService} reading credentials from the {@code members} table, behind a local cache.
+ * <p>
+ * Users are cached by email for {@code jwt.user-cache.ttl-seconds}, unknown emails for
+ * {@code jwt.user-cache.negative-ttl-seconds}, so that repeated logins and refreshes do not query the database.
+ * The cache is bounded by {@code jwt.user-cache.max-entries}: when full, users are loaded but not cached.
+ * Entries of a member are dropped after commit when it is registered or changes, see {@link MemberChangedEvent},
+ * so that a newly registered email is not answered from its cached "unknown" entry. Entries are also indexed by
+ * member id, so that the entry of a member whose email changed is found without scanning the cache.
+ * </p>
+ * <p>
+ * The cache is per node: on other nodes, a changed password or a disabled member keeps authenticating
+ * for up to {@code jwt.user-cache.ttl-seconds}, an accepted window kept short by default.
+ * </p>
+ * <p>
+ * Every call returns a copy of the cached user: Spring Security erases the password of the returned user after
+ * authentication, which must not reach the cache.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MemberUserDetailsService implements UserDetailsService {
+    private final MemberRepository memberRepository;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, String> emailsByMemberId = new ConcurrentHashMap<>();
+
+    public MemberUserDetailsService(MemberRepository memberRepository,
+                                    @Value("${jwt.user-cache.enabled:true}") boolean enabled,
+                                    @Value("${jwt.user-cache.max-entries:200000}") int maxEntries,
+                                    @Value("${jwt.user-cache.ttl-seconds:60}") long ttlSeconds,
+                                    @Value("${jwt.user-cache.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                                    MeterRegistry meterRegistry) {
+        this.memberRepository = memberRepository;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlSeconds * 1000L;
+        this.negativeTtlMs = negativeTtlSeconds * 1000L;
+
+        this.hits = meterRegistry.counter("auth.user.cache", "result", "hit");
+        this.misses = meterRegistry.counter("auth.user.cache", "result", "miss");
+        meterRegistry.gaugeMapSize("auth.user.cache.size", Tags.empty(), entries);
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        Entry entry = enabled ? entries.get(email) : null;
+
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+        } else {
+            misses.increment();
+            entry = load(email);
+
+            if (enabled && (entries.size() < maxEntries || entries.containsKey(email))) {
+                cache(email, entry);
+            }
+        }
+
+        if (entry.user == null) {
+            throw new UsernameNotFoundException("User not found: " + email);
+        }
+
+        return User.withUserDetails(entry.user).build();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMemberChanged(MemberChangedEvent event) {
+        entries.remove(event.getEmail());
+
+        // The email may have changed as well, drop the entry of the previous one too
+        if (event.getMemberId() != null) {
+            String email = emailsByMemberId.remove(event.getMemberId());
+            if (email != null) {
+                entries.remove(email);
+            }
+        }
+        log.debug("Evicted cached credentials of member {}", event.getMemberId());
+    }
+
+    /**
+     * Removes expired entries.
+     */
+    @Scheduled(fixedDelayString = "${jwt.user-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(cached -> {
+            Entry entry = cached.getValue();
+            if (entry.expiresAt > now) {
+                return false;
+            }
+            if (entry.memberId != null) {
+                emailsByMemberId.remove(entry.memberId, cached.getKey());
+            }
+            return true;
+        });
+    }
+
+    private void cache(String email, Entry entry) {
+        entries.put(email, entry);
+
+        if (entry.memberId != null) {
+            String previous = emailsByMemberId.put(entry.memberId, email);
+            if (previous != null && !previous.equals(email)) {
+                entries.remove(previous);
+            }
+        }
+    }
+
+    private Entry load(String email) {
+        long now = System.currentTimeMillis();
+
+        return memberRepository
+                .findByEmail(email)
+                .filter(member -> member.getPasswordHash() != null)
+                .map(member -> new Entry(toUser(member), member.getId(), now + ttlMs))
+                .orElseGet(() -> new Entry(null, null, now + negativeTtlMs));
+    }
+
+    private static UserDetails toUser(Member member) {
+        return User
+                .withUsername(member.getEmail())
+                .password(member.getPasswordHash())
+                .authorities(member.getRoles().split("\\s*,\\s*"))
+                .disabled(!member.isEnabled())
+                .build();
+    }
+
+    private static final class Entry {
+        private final UserDetails user;
+        private final Long memberId;
+        private final long expiresAt;
+
+        private Entry(UserDetails user, Long memberId, long expiresAt) {
+            this.user = user;
+            this.memberId = memberId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
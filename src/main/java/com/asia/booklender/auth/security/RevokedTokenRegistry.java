@@ -0,0 +1,169 @@
+package com.asia.booklender.auth.security;
+
+import com.asia.booklender.auth.entity.RevokedToken;
+import com.asia.booklender.auth.repository.RevokedTokenRepository;
+import com.asia.booklender.auth.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-node registry of revoked JWT ids (jti), backed by the {@code revoked_tokens} table.
+ * <p>
+ * The check is answered from memory: a {@link BloomFilter} first, so that the common negative lookup is
+ * allocation-free and never touches the database, then an exact set of the unexpired revoked jtis for the
+ * filter positives. Filter positives absent from the exact set are counted as false positives.
+ * </p>
+ * <p>
+ * Revocations made on other nodes are picked up incrementally on a timer. Since a Bloom filter cannot forget,
+ * it is rebuilt from the exact set once enough revocations have expired.
+ * </p>
+ */
+@Component
+@Slf4j
+public class RevokedTokenRegistry {
+    /* Revocations committed shortly before the last sync may not have been visible yet, read them again */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long bloomBits;
+    private final int bloomHashes;
+    private final Counter falsePositives;
+
+    private final ConcurrentMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile Instant lastSync = Instant.EPOCH;
+    private int expiredSinceRebuild;
+
+    public RevokedTokenRegistry(RevokedTokenRepository revokedTokenRepository,
+                                @Value("${jwt.revocation.bloom-bits:1048576}") long bloomBits,
+                                @Value("${jwt.revocation.bloom-hashes:5}") int bloomHashes,
+                                MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.bloomBits = bloomBits;
+        this.bloomHashes = bloomHashes;
+        this.bloomFilter = new BloomFilter(bloomBits, bloomHashes);
+
+        this.falsePositives = Counter
+                .builder("auth.revocation.bloom.false.positives")
+                .description("Bloom filter positives for tokens that are not revoked")
+                .register(meterRegistry);
+        Gauge
+                .builder("auth.revocation.bloom.bytes", this, registry -> registry.bloomFilter.sizeInBytes())
+                .description("Memory used by the revocation Bloom filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge
+                .builder("auth.revocation.bloom.fpp", this, registry -> registry.bloomFilter.expectedFalsePositiveRate())
+                .description("Expected false positive rate of the revocation Bloom filter")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("auth.revocation.tokens", Tags.empty(), revoked);
+    }
+
+    /**
+     * Tells whether a token id has been revoked, from memory only.
+     *
+     * @param jti the token id, may be null
+     * @return true if revoked
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+
+        if (revoked.containsKey(jti)) {
+            return true;
+        }
+
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Records the revocation of a token, in the database for the other nodes and in memory right away.
+     *
+     * @param jti the token id
+     * @param subject the token subject
+     * @param expiresAt the token expiry, after which the revocation is forgotten
+     * @param revokedBy who revoked the token
+     */
+    @Transactional
+    public void revoke(String jti, String subject, Instant expiresAt, String revokedBy) {
+        if (!revokedTokenRepository.existsById(jti)) {
+            revokedTokenRepository.save(RevokedToken
+                    .builder()
+                    .jti(jti)
+                    .subject(subject)
+                    .expiresAt(expiresAt)
+                    .createdBy(revokedBy)
+                    .build());
+        }
+
+        add(jti, expiresAt);
+        log.info("Token {} of {} revoked by {}", jti, subject, revokedBy);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findByExpiresAtAfter(now).forEach(token -> add(token.getJti(), token.getExpiresAt()));
+        lastSync = now;
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    /**
+     * Adds the revocations recorded since the last sync, forgets the expired ones,
+     * and rebuilds the Bloom filter once enough of them expired.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    @Transactional
+    public synchronized void sync() {
+        Instant now = Instant.now();
+
+        List<RevokedToken> recent = revokedTokenRepository.findByCreatedAtAfterAndExpiresAtAfter(lastSync.minus(SYNC_OVERLAP), now);
+        recent.forEach(token -> add(token.getJti(), token.getExpiresAt()));
+        lastSync = now;
+
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        expiredSinceRebuild += before - revoked.size();
+
+        if (expiredSinceRebuild > 0 && expiredSinceRebuild >= revoked.size()) {
+            rebuild();
+        }
+
+        revokedTokenRepository.deleteExpired(now);
+    }
+
+    private void add(String jti, Instant expiresAt) {
+        // Exact set first, so that a filter positive always finds the entry
+        revoked.put(jti, expiresAt);
+        bloomFilter.add(jti);
+    }
+
+    private void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(bloomBits, bloomHashes);
+        revoked.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+
+        // Revocations added concurrently to the previous filter
+        revoked.keySet().forEach(rebuilt::add);
+
+        log.debug("Revocation Bloom filter rebuilt with {} tokens, {} expired dropped", revoked.size(), expiredSinceRebuild);
+        expiredSinceRebuild = 0;
+    }
+}
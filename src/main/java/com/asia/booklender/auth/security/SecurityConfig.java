@@ -14,12 +14,9 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -31,7 +28,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(
             HttpSecurity http,
             JwtAuthFilter jwtAuthFilter,
-            RequestLoggingFilter requestLoggingFilter
+            RequestLoggingFilter requestLoggingFilter,
+            AuthenticationProvider authenticationProvider
     ) throws Exception {
         http
                 // CSRF is disabled since the system is stateless hence no csrf attack
@@ -56,51 +54,23 @@ public class SecurityConfig {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(requestLoggingFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterAfter(jwtAuthFilter, RequestLoggingFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Checks passwords against the BCrypt hashes of the members table, see {@link MemberUserDetailsService}.
+     */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService());
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService) {
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
         return authProvider;
     }
 
-    @Bean
-    public UserDetailsService userDetailsService() {
-        // Admin user - can perform all operations
-        UserDetails admin = User.builder()
-                .username("admin@booklender.com")
-                .password(passwordEncoder().encode("admin123"))
-                .roles(Role.ADMIN.getRole())
-                .build();
-
-        // Member users - username matches their email in the members table
-        UserDetails member1 = User.builder()
-                .username("donald.trump@usa.com")
-                .password(passwordEncoder().encode("donald123"))
-                .roles(Role.MEMBER.getRole())
-                .build();
-
-        UserDetails member2 = User.builder()
-                .username("barack.obama@usa.com")
-                .password(passwordEncoder().encode("barack123"))
-                .roles(Role.MEMBER.getRole())
-                .build();
-
-        UserDetails member3 = User.builder()
-                .username("john.rambo@usa.com")
-                .password(passwordEncoder().encode("john123"))
-                .roles(Role.MEMBER.getRole())
-                .build();
-
-        return new InMemoryUserDetailsManager(admin, member1, member2, member3);
-    }
-
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
@@ -2,6 +2,7 @@ package com.asia.booklender.auth.service;
 
 import com.asia.booklender.auth.dto.AuthRequest;
 import com.asia.booklender.auth.dto.AuthResponse;
+import com.asia.booklender.auth.dto.RefreshTokenRequest;
 
 /**
  * Service interface responsible for user authentication.
@@ -20,4 +21,33 @@ public interface AuthService {
      *
      */
     AuthResponse authenticate(AuthRequest request);
+
+    /**
+     * Issues a new access token from a refresh token, without checking the password again.
+     * The refresh token is rotated: the response carries its successor.
+     *
+     * @param request the request containing the refresh token
+     * @return an {@link AuthResponse} containing a new JWT token, a new refresh token and user information
+     * @throws org.springframework.security.authentication.BadCredentialsException if the refresh token is invalid or reused
+     */
+    AuthResponse refresh(RefreshTokenRequest request);
+
+    /**
+     * Revokes a token before its expiry, e.g. on logout or when it is stolen.
+     * Holding the token is what authorizes its revocation. Expired tokens are ignored.
+     *
+     * @param token the JWT token to revoke
+     * @throws io.jsonwebtoken.JwtException if the token is not a valid token of this system
+     */
+    void revoke(String token);
+
+    /**
+     * Logs out: revokes the access token, and the family of the refresh token when given,
+     * so that the session cannot be renewed either.
+     *
+     * @param token the JWT token of the request
+     * @param refreshToken the refresh token of the session, may be null
+     * @throws io.jsonwebtoken.JwtException if the token is not a valid token of this system
+     */
+    void logout(String token, String refreshToken);
 }
@@ -0,0 +1,46 @@
+package com.asia.booklender.auth.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ */
+public interface RefreshTokenService {
+    /**
+     * Issues a refresh token starting a new family, after a successful login.
+     *
+     * @param subject the user email
+     * @return the raw refresh token, only returned to the client
+     */
+    String issue(String subject);
+
+    /**
+     * Consumes a refresh token and issues its successor in the same family.
+     * A token already used is a reuse: the whole family is revoked.
+     *
+     * @param rawToken the raw refresh token
+     * @return the subject of the token and its successor
+     * @throws BadCredentialsException if the token is unknown, expired, revoked or reused
+     */
+    Rotation rotate(String rawToken);
+
+    /**
+     * Revokes the family of a refresh token, e.g. on logout. Unknown tokens and tokens of another subject are ignored.
+     *
+     * @param rawToken the raw refresh token
+     * @param subject the user email, the owner of the token
+     */
+    void revoke(String rawToken, String subject);
+
+    /**
+     * Outcome of a rotation.
+     */
+    @Getter
+    @AllArgsConstructor
+    final class Rotation {
+        private final String subject;
+        private final String refreshToken;
+    }
+}
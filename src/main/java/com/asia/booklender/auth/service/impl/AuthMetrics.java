@@ -0,0 +1,91 @@
+package com.asia.booklender.auth.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records the rate, latency and CPU time of the authentication flows (login, refresh),
+ * so that the cost of password hashing can be compared with token refreshes.
+ * <ul>
+ * <li>{@code auth.requests}: wall time per flow and outcome, its count gives the rate</li>
+ * <li>{@code auth.cpu}: CPU time per flow, of the request thread and of the work it offloads,
+ * see {@link #offloaded(Supplier)}</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /* CPU time of the offloaded work of the flow recorded by the current thread */
+    private static final ThreadLocal<AtomicLong> OFFLOADED_CPU = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T record(String flow, Supplier<T> call) {
+        long wallStart = System.nanoTime();
+        long cpuStart = cpuTime();
+        String outcome = "failure";
+
+        AtomicLong offloadedCpu = new AtomicLong();
+        OFFLOADED_CPU.set(offloadedCpu);
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            OFFLOADED_CPU.remove();
+
+            Timer
+                    .builder("auth.requests")
+                    .tags("flow", flow, "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - wallStart, TimeUnit.NANOSECONDS);
+
+            if (cpuStart >= 0) {
+                Timer
+                        .builder("auth.cpu")
+                        .tag("flow", flow)
+                        .register(meterRegistry)
+                        .record(cpuTime() - cpuStart + offloadedCpu.get(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Wraps work of the current flow that runs on another thread, e.g. the password check in the login lane,
+     * so that its CPU time is added to {@code auth.cpu} of the flow. Must be called on the request thread.
+     *
+     * @param task the offloaded work
+     * @return the task, measuring its CPU time on the thread that runs it
+     */
+    public <T> Supplier<T> offloaded(Supplier<T> task) {
+        AtomicLong offloadedCpu = OFFLOADED_CPU.get();
+        if (offloadedCpu == null) {
+            return task;
+        }
+
+        return () -> {
+            long cpuStart = cpuTime();
+            try {
+                return task.get();
+            } finally {
+                if (cpuStart >= 0) {
+                    offloadedCpu.addAndGet(cpuTime() - cpuStart);
+                }
+            }
+        };
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+}
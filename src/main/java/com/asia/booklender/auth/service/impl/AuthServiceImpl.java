@@ -2,14 +2,20 @@ package com.asia.booklender.auth.service.impl;
 
 import com.asia.booklender.auth.dto.AuthRequest;
 import com.asia.booklender.auth.dto.AuthResponse;
+import com.asia.booklender.auth.dto.RefreshTokenRequest;
+import com.asia.booklender.auth.security.RevokedTokenRegistry;
 import com.asia.booklender.auth.service.AuthService;
+import com.asia.booklender.auth.service.RefreshTokenService;
 import com.asia.booklender.auth.util.JwtUtil;
 import com.asia.booklender.member.entity.Member;
 import com.asia.booklender.member.repository.MemberRepository;
 import com.asia.booklender.shared.security.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -30,6 +36,10 @@ public class AuthServiceImpl implements AuthService {
     private final MemberRepository memberRepository;
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthMetrics authMetrics;
+    private final LoginExecutor loginExecutor;
 
     // Injected from the SecurityConfig
     private final AuthenticationManager authenticationManager;
@@ -38,8 +48,8 @@ public class AuthServiceImpl implements AuthService {
      * Authenticates the user and generates a JWT token.
      *
      * <p>
-     * Authentication is delegated to Spring Security.
-     * If authentication succeeds, a JWT token is generated and returned to the client.
+     * Authentication is delegated to Spring Security, in the bounded login lane of {@link LoginExecutor}.
+     * If authentication succeeds, a JWT token and a refresh token are generated and returned to the client.
      * </p>
      *
      * @param request the authentication request containing email and password
@@ -48,22 +58,102 @@ public class AuthServiceImpl implements AuthService {
      */
     @Override
     public AuthResponse authenticate(AuthRequest request) {
-        // Delegate authentication to Spring Security
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
-                request.getEmail(),
-                request.getPassword()
-                ));
+        return authMetrics.record("login", () -> {
+            // Delegate authentication to Spring Security, the password check is CPU bound
+            loginExecutor.execute(authMetrics.offloaded(() -> authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+                    request.getEmail(),
+                    request.getPassword()
+                    ))));
 
-        log.debug("Authentication successful for email={}", request.getEmail());
+            log.debug("Authentication successful for email={}", request.getEmail());
 
+            return issueTokens(request.getEmail(), refreshTokenService.issue(request.getEmail()));
+        });
+    }
+
+    /**
+     * Issues a new access token from a rotated refresh token.
+     *
+     * <p>
+     * No password hash is checked: holding an unused refresh token of the family proves the login.
+     * The user is still loaded, so that a disabled user can no longer refresh.
+     * </p>
+     *
+     * @param request the request containing the refresh token
+     * @return an {@link AuthResponse} containing the new JWT token and refresh token
+     */
+    @Override
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        return authMetrics.record("refresh", () -> {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+
+            log.debug("Refresh token rotated for email={}", rotation.getSubject());
+
+            return issueTokens(rotation.getSubject(), rotation.getRefreshToken());
+        });
+    }
+
+    /**
+     * Generates the JWT token of an authenticated user.
+     *
+     * @param email the authenticated user email
+     * @param refreshToken the refresh token returned along
+     * @return a populated {@link AuthResponse}
+     */
+    private AuthResponse issueTokens(String email, String refreshToken) {
         // Load authenticated user details
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
+        final UserDetails userDetails = userDetailsService.loadUserByUsername(email);
         Objects.requireNonNull(userDetails, "UserDetails must not be null");
 
+        if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked()) {
+            throw new BadCredentialsException("User is disabled or locked");
+        }
+
+        // Resolve the member account once, its id is embedded in the token
+        final Optional<Member> member = memberRepository.findByEmail(userDetails.getUsername());
+
         // Generate JWT token for the authenticated user
-        final String jwtToken = jwtUtil.generateToken(userDetails);
+        final String jwtToken = jwtUtil.generateToken(
+                userDetails,
+                member.map(Member::getId).orElse(null),
+                member.map(Member::getName).orElse(null));
 
-        return buildAuthResponse(userDetails, jwtToken);
+        AuthResponse authResponse = buildAuthResponse(userDetails, jwtToken, member);
+        authResponse.setRefreshToken(refreshToken);
+        return authResponse;
+    }
+
+    @Override
+    public void logout(String token, String refreshToken) {
+        Claims claims;
+        boolean expired = false;
+        try {
+            claims = jwtUtil.parseClaims(token);
+        } catch (ExpiredJwtException ex) {
+            claims = ex.getClaims();
+            expired = true;
+        }
+
+        if (!expired) {
+            revokedTokenRegistry.revoke(claims.getId(), claims.getSubject(), claims.getExpiration().toInstant(), claims.getSubject());
+        }
+
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken, claims.getSubject());
+        }
+    }
+
+    @Override
+    public void revoke(String token) {
+        final Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(token);
+        } catch (ExpiredJwtException ex) {
+            log.debug("Ignoring revocation of expired token of {}", ex.getClaims().getSubject());
+            return;
+        }
+
+        revokedTokenRegistry.revoke(claims.getId(), claims.getSubject(), claims.getExpiration().toInstant(), claims.getSubject());
     }
 
     /**
@@ -75,9 +165,10 @@ public class AuthServiceImpl implements AuthService {
      *
      * @param userDetails the authenticated user's details
      * @param jwt the generated JWT token
+     * @param member the member account of the user, if any
      * @return a populated {@link AuthResponse}
      */
-    private AuthResponse buildAuthResponse(UserDetails userDetails, String jwt) {
+    private AuthResponse buildAuthResponse(UserDetails userDetails, String jwt, Optional<Member> member) {
         String authority = getAuthority(userDetails);
         AuthResponse authResponse = AuthResponse
                 .builder()
@@ -88,24 +179,12 @@ public class AuthServiceImpl implements AuthService {
 
         // Include memberId only for MEMBER role
         if (authority.equals(Role.MEMBER.getAuthority())) {
-            authResponse.setMemberId(getMemberId(userDetails.getUsername()));
+            authResponse.setMemberId(member.map(Member::getId).orElse(null));
         }
 
         return authResponse;
     }
 
-
-    /**
-     * Retrieves the member ID associated with the given email.
-     *
-     * @param userEmail the email of the authenticated user
-     * @return the member ID if found, otherwise {@code null}
-     */
-    private Long getMemberId(String userEmail) {
-        Optional<Member> member = memberRepository.findByEmail(userEmail);
-        return member.map(Member::getId).orElse(null);
-    }
-
     /**
      * Extracts the user's primary authority (role).
      *
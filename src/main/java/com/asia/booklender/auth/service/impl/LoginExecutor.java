@@ -0,0 +1,117 @@
+package com.asia.booklender.auth.service.impl;
+
+import com.asia.booklender.auth.exception.LoginCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Isolated, bounded lane for password checks.
+ * <p>
+ * BCrypt is CPU bound: password checks run on at most {@code jwt.login.threads} threads, so a login burst
+ * cannot take every core from the other endpoints. At most {@code jwt.login.queue-capacity} checks wait
+ * for a thread; beyond that, logins are rejected at once with {@link LoginCapacityExceededException} (503).
+ * A check not completed within {@code jwt.login.timeout-ms} is cancelled and answered with 503 as well,
+ * so that request threads never wait on a saturated lane indefinitely.
+ * </p>
+ * <p>
+ * Published metrics: {@code auth.login.inflight} (running checks), {@code auth.login.queued},
+ * {@code auth.login.rejected} and {@code auth.login.timeouts}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LoginExecutor {
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final long timeoutMs;
+    private final Counter rejected;
+    private final Counter timeouts;
+
+    public LoginExecutor(@Value("${jwt.login.threads:0}") int threads,
+                         @Value("${jwt.login.queue-capacity:50}") int queueCapacity,
+                         @Value("${jwt.login.timeout-ms:5000}") long timeoutMs,
+                         @Value("${jwt.login.retry-after-seconds:1}") long retryAfterSeconds,
+                         MeterRegistry meterRegistry) {
+        // Default to half of the cores, leaving the rest to the other endpoints
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timeoutMs = timeoutMs;
+
+        Gauge
+                .builder("auth.login.inflight", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password checks currently running")
+                .register(meterRegistry);
+        Gauge
+                .builder("auth.login.queued", executor, pool -> pool.getQueue().size())
+                .description("Password checks waiting for a login thread")
+                .register(meterRegistry);
+        this.rejected = Counter
+                .builder("auth.login.rejected")
+                .description("Logins rejected because the login lane was full")
+                .register(meterRegistry);
+        this.timeouts = Counter
+                .builder("auth.login.timeouts")
+                .description("Logins cancelled because the password check did not complete in time")
+                .register(meterRegistry);
+
+        log.info("Login lane started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Runs a password check in the login lane and waits for its outcome.
+     *
+     * @param check the password check
+     * @return the result of the check
+     * @throws LoginCapacityExceededException if the lane is full, or the check did not complete in time
+     */
+    public <T> T execute(Supplier<T> check) {
+        Future<T> future;
+        try {
+            future = executor.submit(check::get);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new LoginCapacityExceededException("Too many login requests, please retry", retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            timeouts.increment();
+            throw new LoginCapacityExceededException("Login timed out, please retry", retryAfterSeconds);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password check failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the password check", ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,130 @@
+package com.asia.booklender.auth.service.impl;
+
+import com.asia.booklender.auth.entity.RefreshToken;
+import com.asia.booklender.auth.repository.RefreshTokenRepository;
+import com.asia.booklender.auth.service.RefreshTokenService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Default implementation of {@link RefreshTokenService}.
+ * <p>
+ * Raw tokens are 256 random bits, returned to the client once. Only their SHA-256 digest is stored,
+ * so a leaked table does not leak usable tokens. Being high entropy, they need no slow hash.
+ * </p>
+ */
+@Service
+@Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long expirationMs;
+    private final Counter reuses;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   @Value("${jwt.refresh.expiration-ms:1209600000}") long expirationMs,
+                                   MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.expirationMs = expirationMs;
+        this.reuses = Counter
+                .builder("auth.refresh.reuse")
+                .description("Refresh tokens presented again after rotation, revoking their family")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public String issue(String subject) {
+        return issue(subject, UUID.randomUUID().toString(), Instant.now());
+    }
+
+    @Override
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String rawToken) {
+        String tokenHash = digest(rawToken);
+        RefreshToken token = refreshTokenRepository
+                .findById(tokenHash)
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        Instant now = Instant.now();
+        if (token.getRevokedAt() != null || !token.getExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Refresh token expired or revoked");
+        }
+
+        // Already rotated, or rotated concurrently: the token was copied, revoke the family (kept on rollback)
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(tokenHash, now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now, token.getSubject());
+            reuses.increment();
+            log.warn("Refresh token reuse detected for {}. Revoked {} tokens of family {}", token.getSubject(), revoked, token.getFamilyId());
+            throw new BadCredentialsException("Refresh token reuse detected");
+        }
+
+        return new Rotation(token.getSubject(), issue(token.getSubject(), token.getFamilyId(), now));
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String rawToken, String subject) {
+        refreshTokenRepository
+                .findById(digest(rawToken))
+                .filter(token -> token.getSubject().equals(subject))
+                .ifPresent(token -> {
+                    int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), Instant.now(), subject);
+                    log.debug("Revoked {} refresh tokens of family {} for {}", revoked, token.getFamilyId(), subject);
+                });
+    }
+
+    /**
+     * Removes expired tokens. Used tokens are kept until then, to detect their reuse.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        log.debug("Purged {} expired refresh tokens", deleted);
+    }
+
+    private String issue(String subject, String familyId, Instant now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken
+                .builder()
+                .tokenHash(digest(rawToken))
+                .familyId(familyId)
+                .subject(subject)
+                .expiresAt(now.plusMillis(expirationMs))
+                .createdBy(subject)
+                .build());
+
+        return rawToken;
+    }
+
+    private static String digest(String rawToken) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.asia.booklender.auth.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter of strings over an {@link AtomicLongArray}.
+ * <p>
+ * Lookups do not allocate: the string is hashed char by char into two 64-bit hashes, combined into
+ * {@code hashes} bit positions (Kirsch-Mitzenmacher). Elements cannot be removed, the filter is rebuilt instead.
+ * </p>
+ */
+public class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitMask;
+    private final int hashes;
+
+    /**
+     * @param bits number of bits, rounded up to a power of two
+     * @param hashes number of bits set per element
+     */
+    public BloomFilter(long bits, int hashes) {
+        long size = Math.max(Long.highestOneBit(Math.max(bits - 1, 64)) << 1, 64);
+        this.words = new AtomicLongArray((int) (size >>> 6));
+        this.bitMask = size - 1;
+        this.hashes = hashes;
+    }
+
+    public void add(String value) {
+        long h1 = hash1(value);
+        long h2 = hash2(value);
+
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            long mask = 1L << bit;
+            words.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash1(value);
+        long h2 = hash2(value);
+
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return size of the bit array in bytes
+     */
+    public long sizeInBytes() {
+        return words.length() * 8L;
+    }
+
+    /**
+     * Estimates the false positive probability from the fraction of bits set: {@code fill ^ hashes}.
+     */
+    public double expectedFalsePositiveRate() {
+        long setBits = 0;
+        for (int i = 0; i < words.length(); i++) {
+            setBits += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) setBits / (bitMask + 1), hashes);
+    }
+
+    private static long hash1(String value) {
+        // FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long hash2(String value) {
+        long hash = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = Long.rotateLeft(hash ^ value.charAt(i), 27) * 0xbf58476d1ce4e5b9L;
+        }
+        // Odd, so that the probe sequence covers distinct bits
+        return hash | 1;
+    }
+}
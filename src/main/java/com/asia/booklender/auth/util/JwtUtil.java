@@ -1,25 +1,26 @@
 package com.asia.booklender.auth.util;
 
+import com.asia.booklender.shared.security.CurrentUser;
+import com.asia.booklender.shared.security.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-import java.util.function.Function;
+import java.util.*;
 
 /**
  * Utility class for handling JWT operations:
  * <li>Token generation</li>
- * <li>Token validation</li>
- * <li>Claim extraction</li>
+ * <li>Token verification, parsing the claims once</li>
+ * <li>Principal extraction from the claims</li>
  *
  * <p>
  * This class is stateless and relies on configuration properties
@@ -29,6 +30,10 @@ import java.util.function.Function;
 @Component
 @Slf4j
 public class JwtUtil {
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_MEMBER_ID = "memberId";
+    public static final String CLAIM_MEMBER_NAME = "memberName";
 
     /**
      * Secret key to sign and verify the JWT token
@@ -43,64 +48,81 @@ public class JwtUtil {
     private Long expiration;
 
     /**
-     * Extracts username (subject) from JWT token.
-     *
-     * @param token JWT token
-     * @return username (email in this system)
+     * Signing key and parser, built once from the secret. Both are immutable and thread-safe.
      */
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    private SecretKey signingKey;
+    private JwtParser parser;
 
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
 
     /**
-     * Extracts expiration date from JWT token.
+     * Parses the token once, verifying its signature and expiration.
      *
      * @param token JWT token
-     * @return expiration date
+     * @return the verified claims
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
      */
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public Claims parseClaims(String token) {
+        return parser
+                .parseSignedClaims(token)
+                .getPayload();
     }
 
     /**
-     * Generic method to extract any claim from the token.
+     * Builds the request principal from verified claims, without any lookup.
+     * <p>
+     * Tokens issued before the roles claim fall back to the single role claim,
+     * and tokens without the memberId claim get a principal without member id.
+     * </p>
      *
-     * @param token          JWT token
-     * @param claimsResolver function mapping Claims -> desired value
-     * @param <T>            return type
-     * @return extracted claim
+     * @param claims verified claims
+     * @return the principal
      */
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+    public CurrentUser toCurrentUser(Claims claims) {
+        Collection<String> authorities;
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (roles != null) {
+            authorities = roles.stream().map(String::valueOf).toList();
+        } else {
+            String role = claims.get(CLAIM_ROLE, String.class);
+            authorities = role != null ? List.of(role) : List.of();
+        }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
+        Number memberId = claims.get(CLAIM_MEMBER_ID, Number.class);
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return new CurrentUser(
+                claims.getSubject(),
+                memberId != null ? memberId.longValue() : null,
+                claims.get(CLAIM_MEMBER_NAME, String.class),
+                Role.maskOf(authorities),
+                claims.getId());
     }
 
     /**
      * Generates a JWT token for the authenticated user.
      * Token contains:
      * <li>subject: username (email)</li>
-     * <li>claim: role</li>
+     * <li>claim: role and roles</li>
+     * <li>claim: memberId and memberName, if the user has a member account</li>
      *
      * @param userDetails authenticated user
+     * @param memberId member id of the user, null if none
+     * @param memberName member name of the user, null if none
      * @return signed JWT token
      */
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(UserDetails userDetails, Long memberId, String memberName) {
         try {
             Map<String, Object> claims = new HashMap<>();
-            claims.put("role", userDetails.getAuthorities().iterator().next().getAuthority());
+            claims.put(CLAIM_ROLE, userDetails.getAuthorities().iterator().next().getAuthority());
+            claims.put(CLAIM_ROLES, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+            if (memberId != null) {
+                claims.put(CLAIM_MEMBER_ID, memberId);
+                claims.put(CLAIM_MEMBER_NAME, memberName);
+            }
             String token = createToken(claims, userDetails.getUsername());
             log.debug("JWT generated for user={}", userDetails.getUsername());
 
@@ -118,27 +140,7 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
-
-    /**
-     * Validates JWT token against: username match and expiration
-     * <p>
-     * Note: Signature validation already happens during parsing
-     * </p>
-     *
-     * @param token        JWT token
-     * @param userDetails expected user
-     * @return true if valid
-     */
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
@@ -0,0 +1,113 @@
+package com.asia.booklender.auth.util;
+
+import com.asia.booklender.shared.security.CurrentUser;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of verified tokens, so that a bearer token sent again is not parsed and HMAC-checked again.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token, never by the token itself, and hold the principal
+ * built from its claims. An entry is only served until the token expiry and is purged after it.
+ * The cache is bounded by {@code jwt.cache.max-entries}: when full, new tokens are verified but not cached.
+ * </p>
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+    private final JwtUtil jwtUtil;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              @Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.max-entries:100000}") int maxEntries,
+                              MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+
+        this.hits = meterRegistry.counter("auth.token.cache", "result", "hit");
+        this.misses = meterRegistry.counter("auth.token.cache", "result", "miss");
+        meterRegistry.gaugeMapSize("auth.token.cache.size", Tags.empty(), entries);
+    }
+
+    /**
+     * Verifies a token, from the cache if it was verified before and has not expired since.
+     *
+     * @param token JWT token
+     * @return the principal built from the verified claims
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+     */
+    public CurrentUser verify(String token) {
+        if (!enabled) {
+            return jwtUtil.toCurrentUser(jwtUtil.parseClaims(token));
+        }
+
+        String key = digest(token);
+        Entry cached = entries.get(key);
+
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+            return cached.principal;
+        }
+
+        misses.increment();
+        Claims claims = jwtUtil.parseClaims(token);
+        CurrentUser principal = jwtUtil.toCurrentUser(claims);
+
+        if (claims.getExpiration() != null && entries.size() < maxEntries) {
+            entries.put(key, new Entry(principal, claims.getExpiration().getTime()));
+        }
+
+        return principal;
+    }
+
+    /**
+     * Removes the entries of expired tokens.
+     */
+    @Scheduled(fixedDelayString = "${jwt.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        log.debug("Purged {} expired verified tokens", before - entries.size());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static final class Entry {
+        private final CurrentUser principal;
+        private final long expiresAt;
+
+        private Entry(CurrentUser principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,16 +1,31 @@
 package com.asia.booklender.book.api;
 
+import com.asia.booklender.book.cache.CatalogPageCache;
+import com.asia.booklender.book.cache.CatalogSnapshotCache;
+import com.asia.booklender.book.dto.BookChangesDto;
+import com.asia.booklender.book.dto.BookAvailabilityDto;
 import com.asia.booklender.book.dto.BookDto;
 import com.asia.booklender.shared.api.PaginationRequest;
 import com.asia.booklender.book.service.BookService;
+import com.asia.booklender.book.stream.BookAvailabilityStream;
 import com.asia.booklender.shared.api.ApiPaginationResponse;
 import com.asia.booklender.shared.api.ApiResponse;
+import com.asia.booklender.shared.api.ContentCodings;
+import com.asia.booklender.shared.api.ETags;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -20,29 +35,120 @@ import java.util.List;
 @Validated
 public class BookController {
     private final BookService bookService;
+    private final CatalogPageCache catalogPageCache;
+    private final BookAvailabilityStream bookAvailabilityStream;
+    private final CatalogSnapshotCache catalogSnapshotCache;
 
     /**
-     * a public API to return all available book with paging
+     * a public API to return all available book with paging, by page number or by cursor.
+     * The first pages are served from their cached serialized form, gzipped when the client accepts it.
      *
      * @param request pagination request parameter
      * @return all books as per {@link PaginationRequest}
      */
     @GetMapping
-    public ResponseEntity<ApiPaginationResponse<List<BookDto>>> getAll(@Valid @ModelAttribute PaginationRequest request) {
-        Page<BookDto> allBooks = bookService.findAll(request.toPageable());
+    public ResponseEntity<?> getAll(@Valid @ModelAttribute PaginationRequest request,
+                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (catalogPageCache.isCacheable(request)) {
+            CatalogPageCache.SerializedPage page = catalogPageCache.get(request,
+                    () -> ApiPaginationResponse.success(bookService.findAll(request.toPageable(), request.getCount())));
+
+            return serialized(page, acceptEncoding);
+        }
+
+        if (request.isCursorMode()) {
+            return ResponseEntity.ok(ApiPaginationResponse.success(bookService.scrollAll(request.toScrollRequest())));
+        }
+
+        Slice<BookDto> allBooks = bookService.findAll(request.toPageable(), request.getCount());
 
         return ResponseEntity.ok(ApiPaginationResponse.success(allBooks));
     }
 
     /**
-     * Get book detail by id
+     * Get book detail by id, with the book version as ETag.
+     * A matching {@code If-None-Match} is answered with 304 from the version alone.
      *
      * @param id the book's id
      * @return the book detail
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<BookDto>> getById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<BookDto>> getById(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(ETags.strong(id, bookService.findVersion(id)))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         BookDto bookDTO = bookService.findById(id);
-        return ResponseEntity.ok(ApiResponse.success(bookDTO));
+
+        // The ETag of the body actually returned, the version may have moved since the check
+        return ResponseEntity
+                .ok()
+                .eTag(ETags.strong(id, bookDTO.getVersion()))
+                .body(ApiResponse.success(bookDTO));
+    }
+
+    /**
+     * a public Server-Sent Events stream of the inventory of books, pushed after their borrows, returns and updates
+     *
+     * @return the {@code availability} events, each with the book id, available copies and version
+     */
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BookAvailabilityDto>> streamAvailability() {
+        return bookAvailabilityStream.subscribe();
+    }
+
+    /**
+     * a public API to return the full catalog, for clients keeping a local copy. Served gzipped when the client
+     * accepts it, with its token as ETag. Answered with 503 and Retry-After until the snapshot is first built.
+     *
+     * @return all books, with the token to read the next changes from {@code /changes}
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<byte[]> getSnapshot(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                              WebRequest webRequest) {
+        CatalogSnapshotCache.Snapshot snapshot = catalogSnapshotCache.get();
+        String etag = ETags.strong(snapshot.getToken());
+
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (ContentCodings.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzipped());
+        }
+
+        return response.body(snapshot.getJson());
+    }
+
+    /**
+     * a public API to return the books created, updated or deleted since a sync token
+     *
+     * @param since the token of the snapshot or of the previous changes
+     * @param limit max number of books, read the rest right away with the next token when {@code hasMore}
+     * @return the changes, with the next token
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<BookChangesDto>> getChanges(@RequestParam String since,
+                                                                  @RequestParam(defaultValue = "1000") @Min(1) @Max(5000) int limit) {
+        return ResponseEntity.ok(ApiResponse.success(bookService.findChanges(since, limit)));
+    }
+
+    private static ResponseEntity<byte[]> serialized(CatalogPageCache.SerializedPage page, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (page.getGzipped() != null && ContentCodings.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.getGzipped());
+        }
+
+        return response.body(page.getJson());
     }
 }
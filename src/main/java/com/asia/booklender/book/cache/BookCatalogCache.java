@@ -0,0 +1,225 @@
+package com.asia.booklender.book.cache;
+
+import com.asia.booklender.book.dto.BookDto;
+import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.book.event.BookChangedEvent;
+import com.asia.booklender.book.mapper.BookMapper;
+import com.asia.booklender.book.repository.BookRepository;
+import com.asia.booklender.loan.event.LoanBorrowedEvent;
+import com.asia.booklender.loan.event.LoanReturnedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory cache of {@link BookDto} per book id, for the public book detail endpoint.
+ * <p>
+ * An entry is served as is for {@code book.cache.staleness-ms} after it was loaded or validated. After that,
+ * it is validated against {@code books.version} with a primary key lookup of the version only, and reloaded
+ * if the version moved. Changes made on this node evict the entry after commit: {@link BookChangedEvent}
+ * for admin changes, {@link LoanBorrowedEvent} and {@link LoanReturnedEvent} for inventory changes.
+ * The staleness window therefore only applies to changes made on other nodes, e.g. to {@code availableCopies}.
+ * </p>
+ * <p>
+ * A load racing with an eviction of the same book is not cached: evictions are counted per id stripe
+ * ({@value #EVICTION_STRIPES} stripes), so that the constant evictions of borrows and returns of other books
+ * do not prevent caching. A loaded entry never replaces a newer version. The cache is bounded by {@code book.cache.max-entries}:
+ * when full, books are loaded but not cached. The {@code book.cache.warm-up-size} most borrowed books are
+ * loaded at startup.
+ * </p>
+ */
+@Component
+@Slf4j
+public class BookCatalogCache {
+    private static final int EVICTION_STRIPES = 1024;
+
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long stalenessMs;
+    private final int warmUpSize;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter revalidations;
+    private final Counter evictions;
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    /* Evictions of all books */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /* Evictions per id stripe */
+    private final AtomicLongArray stripeEvictions = new AtomicLongArray(EVICTION_STRIPES);
+
+    public BookCatalogCache(BookRepository bookRepository,
+                            BookMapper bookMapper,
+                            @Value("${book.cache.enabled:true}") boolean enabled,
+                            @Value("${book.cache.max-entries:50000}") int maxEntries,
+                            @Value("${book.cache.staleness-ms:2000}") long stalenessMs,
+                            @Value("${book.cache.warm-up-size:500}") int warmUpSize,
+                            MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.stalenessMs = stalenessMs;
+        this.warmUpSize = warmUpSize;
+
+        this.hits = meterRegistry.counter("book.cache", "result", "hit");
+        this.misses = meterRegistry.counter("book.cache", "result", "miss");
+        this.revalidations = meterRegistry.counter("book.cache", "result", "revalidated");
+        this.evictions = Counter
+                .builder("book.cache.evictions")
+                .description("Cached books evicted after a change")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("book.cache.size", Tags.empty(), entries);
+    }
+
+    /**
+     * Returns a book, from memory if cached and not stale.
+     *
+     * @param id the book id
+     * @return the book, empty if it does not exist
+     */
+    public Optional<BookDto> get(Long id) {
+        if (!enabled) {
+            return bookRepository.findById(id).map(bookMapper::toDto);
+        }
+
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(id);
+
+        if (cached != null && now - cached.validatedAt <= stalenessMs) {
+            hits.increment();
+            return Optional.of(cached.book);
+        }
+
+        if (cached != null) {
+            Optional<Integer> version = bookRepository.findVersionById(id);
+
+            if (version.isPresent() && version.get().equals(cached.version)) {
+                revalidations.increment();
+                entries.replace(id, cached, new Entry(cached.book, cached.version, now));
+                return Optional.of(cached.book);
+            }
+        }
+
+        misses.increment();
+        return load(id);
+    }
+
+    /**
+     * Returns the version of a book, from memory if cached and not stale.
+     *
+     * @param id the book id
+     * @return the book version, empty if the book does not exist
+     */
+    public Optional<Integer> version(Long id) {
+        Entry cached = enabled ? entries.get(id) : null;
+
+        if (cached != null && System.currentTimeMillis() - cached.validatedAt <= stalenessMs) {
+            hits.increment();
+            return Optional.of(cached.version);
+        }
+
+        return bookRepository.findVersionById(id);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getBookId() == null) {
+            invalidations.incrementAndGet();
+            evictions.increment(entries.size());
+            entries.clear();
+            return;
+        }
+        evict(event.getBookId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBorrowed(LoanBorrowedEvent event) {
+        evict(event.getBookId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReturned(LoanReturnedEvent event) {
+        evict(event.getBookId());
+    }
+
+    /**
+     * Preloads the most borrowed books.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled || warmUpSize <= 0) {
+            return;
+        }
+
+        List<Book> books = bookRepository.findMostBorrowed(Math.min(warmUpSize, maxEntries));
+        long now = System.currentTimeMillis();
+        books.forEach(book -> entries.putIfAbsent(book.getId(), new Entry(bookMapper.toDto(book), book.getVersion(), now)));
+
+        log.info("Book cache warmed up with {} most borrowed books", books.size());
+    }
+
+    private Optional<BookDto> load(Long id) {
+        int stripe = stripe(id);
+        long invalidation = invalidations.get();
+        long stripeEviction = stripeEvictions.get(stripe);
+
+        Optional<Book> book = bookRepository.findById(id);
+        if (book.isEmpty()) {
+            entries.remove(id);
+            return Optional.empty();
+        }
+
+        BookDto dto = bookMapper.toDto(book.get());
+
+        // Skip caching if the book may have been evicted during the load, or if the cache is full
+        boolean evicted = invalidations.get() != invalidation || stripeEvictions.get(stripe) != stripeEviction;
+        if (!evicted && (entries.size() < maxEntries || entries.containsKey(id))) {
+            Entry loaded = new Entry(dto, book.get().getVersion(), System.currentTimeMillis());
+            entries.merge(id, loaded, (current, next) -> current.version != null && next.version != null
+                    && current.version > next.version ? current : next);
+        }
+
+        return Optional.of(dto);
+    }
+
+    private void evict(Long id) {
+        stripeEvictions.incrementAndGet(stripe(id));
+        if (entries.remove(id) != null) {
+            evictions.increment();
+        }
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (EVICTION_STRIPES - 1);
+    }
+
+    private static final class Entry {
+        private final BookDto book;
+        private final Integer version;
+        private final long validatedAt;
+
+        private Entry(BookDto book, Integer version, long validatedAt) {
+            this.book = book;
+            this.version = version;
+            this.validatedAt = validatedAt;
+        }
+    }
+}
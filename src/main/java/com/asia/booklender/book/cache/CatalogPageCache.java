@@ -0,0 +1,246 @@
+package com.asia.booklender.book.cache;
+
+import com.asia.booklender.book.dto.BookDto;
+import com.asia.booklender.book.event.BookChangedEvent;
+import com.asia.booklender.shared.api.ApiPaginationResponse;
+import com.asia.booklender.shared.api.PaginationRequest;
+import com.asia.booklender.shared.enums.CountMode;
+import com.asia.booklender.shared.enums.EntitySortField;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.SortDirection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the serialized first pages of the public book listing, so that hot pages skip the query and Jackson.
+ * <p>
+ * Pages are cached per {@code (page, size, sortField, sortDirection, count)}, in offset mode and for the first
+ * {@code book.page-cache.max-pages} pages only. Each entry holds the JSON bytes and, above
+ * {@code book.page-cache.gzip-min-bytes}, a gzip copy served to clients that accept it.
+ * </p>
+ * <p>
+ * Entries belong to a catalog generation, bumped after commit by {@link BookChangedEvent}: books created,
+ * updated or deleted on this node are seen at once. A page loaded while the generation moved is stored under
+ * the old generation, hence never served. Borrows and returns do not bump it, otherwise every one of them
+ * would empty the cache: the {@code availableCopies} embedded in the pages, and changes made on other nodes,
+ * are seen after at most {@code book.page-cache.staleness-ms}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class CatalogPageCache {
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxPages;
+    private final int maxEntries;
+    private final long stalenessMs;
+    private final boolean gzip;
+    private final int gzipMinBytes;
+    private final Counter hits;
+    private final Counter misses;
+    private final DistributionSummary identityBytes;
+    private final DistributionSummary gzipBytes;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    public CatalogPageCache(ObjectMapper objectMapper,
+                            @Value("${book.page-cache.enabled:true}") boolean enabled,
+                            @Value("${book.page-cache.max-pages:5}") int maxPages,
+                            @Value("${book.page-cache.max-entries:1000}") int maxEntries,
+                            @Value("${book.page-cache.staleness-ms:2000}") long stalenessMs,
+                            @Value("${book.page-cache.gzip:true}") boolean gzip,
+                            @Value("${book.page-cache.gzip-min-bytes:1024}") int gzipMinBytes,
+                            MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxPages = maxPages;
+        this.maxEntries = maxEntries;
+        this.stalenessMs = stalenessMs;
+        this.gzip = gzip;
+        this.gzipMinBytes = gzipMinBytes;
+
+        this.hits = meterRegistry.counter("book.page.cache", "result", "hit");
+        this.misses = meterRegistry.counter("book.page.cache", "result", "miss");
+        this.identityBytes = DistributionSummary
+                .builder("book.page.cache.entry.bytes")
+                .description("Size of the cached catalog pages")
+                .baseUnit("bytes")
+                .tag("encoding", "identity")
+                .register(meterRegistry);
+        this.gzipBytes = DistributionSummary
+                .builder("book.page.cache.entry.bytes")
+                .description("Size of the cached catalog pages")
+                .baseUnit("bytes")
+                .tag("encoding", "gzip")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("book.page.cache.size", Tags.empty(), entries);
+        meterRegistry.gauge("book.page.cache.bytes", Tags.empty(), cachedBytes);
+    }
+
+    /**
+     * @param request the listing request
+     * @return whether the page of the request is cached
+     */
+    public boolean isCacheable(PaginationRequest request) {
+        return enabled && !request.isCursorMode() && request.getPage() < maxPages;
+    }
+
+    /**
+     * Returns a serialized catalog page, from memory if cached and not stale.
+     *
+     * @param request a cacheable listing request
+     * @param loader reads the page on a miss
+     * @return the serialized page
+     */
+    public SerializedPage get(PaginationRequest request, Supplier<ApiPaginationResponse<List<BookDto>>> loader) {
+        Key key = new Key(request);
+        long currentGeneration = generation.get();
+        Entry cached = entries.get(key);
+
+        if (cached != null && cached.generation == currentGeneration
+                && System.currentTimeMillis() - cached.createdAt <= stalenessMs) {
+            hits.increment();
+            return cached.page;
+        }
+
+        misses.increment();
+        SerializedPage page = serialize(loader.get());
+
+        // Skip caching if the catalog changed during the load, or if the cache is full
+        if (generation.get() == currentGeneration && (entries.size() < maxEntries || entries.containsKey(key))) {
+            Entry previous = entries.put(key, new Entry(page, currentGeneration, System.currentTimeMillis()));
+            cachedBytes.addAndGet(page.size() - (previous != null ? previous.page.size() : 0));
+        }
+
+        return page;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        generation.incrementAndGet();
+
+        if (!entries.isEmpty()) {
+            entries.clear();
+            cachedBytes.set(0);
+        }
+    }
+
+    private SerializedPage serialize(ApiPaginationResponse<List<BookDto>> response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            identityBytes.record(json.length);
+
+            if (!gzip || json.length < gzipMinBytes) {
+                return new SerializedPage(json, null);
+            }
+
+            byte[] gzipped = gzip(json);
+            gzipBytes.record(gzipped.length);
+            return new SerializedPage(json, gzipped);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize catalog page", ex);
+        }
+    }
+
+    private byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A serialized catalog page, with its gzip copy if large enough.
+     */
+    public static final class SerializedPage {
+        private final byte[] json;
+        private final byte[] gzipped;
+
+        private SerializedPage(byte[] json, byte[] gzipped) {
+            this.json = json;
+            this.gzipped = gzipped;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return the gzip copy, null if the page is served uncompressed
+         */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        private long size() {
+            return json.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+
+    private static final class Key {
+        private final int page;
+        private final int size;
+        private final EntitySortField sortField;
+        private final SortDirection sortDirection;
+        private final CountMode count;
+
+        private Key(PaginationRequest request) {
+            this.page = request.getPage();
+            this.size = request.getSize();
+            this.sortField = request.getSortField();
+            this.sortDirection = request.getSortDirection();
+            this.count = request.getCount();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key
+                    && page == key.page
+                    && size == key.size
+                    && sortField == key.sortField
+                    && sortDirection == key.sortDirection
+                    && count == key.count;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(page, size, sortField, sortDirection, count);
+        }
+    }
+
+    private static final class Entry {
+        private final SerializedPage page;
+        private final long generation;
+        private final long createdAt;
+
+        private Entry(SerializedPage page, long generation, long createdAt) {
+            this.page = page;
+            this.generation = generation;
+            this.createdAt = createdAt;
+        }
+    }
+}
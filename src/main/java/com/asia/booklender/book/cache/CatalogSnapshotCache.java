@@ -0,0 +1,174 @@
+package com.asia.booklender.book.cache;
+
+import com.asia.booklender.book.config.BookSyncConfig;
+import com.asia.booklender.book.dto.BookChangesDto;
+import com.asia.booklender.book.dto.BookDto;
+import com.asia.booklender.book.exception.SnapshotNotReadyException;
+import com.asia.booklender.book.service.BookService;
+import com.asia.booklender.shared.api.ApiResponse;
+import com.asia.booklender.shared.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full catalog snapshot for offline clients, served from memory, gzipped or plain.
+ * <p>
+ * The books are kept in memory by id, loaded through the change feed from its start by the first scheduled run
+ * at startup, then patched every {@code book.sync.snapshot.rebuild-interval-ms} with the changes since the snapshot
+ * token. Requests never build it: until the first build completes they get {@link SnapshotNotReadyException}.
+ * The snapshot is re-serialized only when something changed. Its token lets clients continue with the change feed.
+ * </p>
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotCache {
+    private static final long NOT_READY_RETRY_AFTER_SECONDS = 5;
+
+    private final BookService bookService;
+    private final ObjectMapper objectMapper;
+    private final BookSyncConfig config;
+    private final Timer rebuilds;
+
+    private final Map<Long, BookDto> books = new TreeMap<>();
+    private final AtomicLong snapshotBytes = new AtomicLong();
+    private String token;
+    private volatile Snapshot snapshot;
+
+    public CatalogSnapshotCache(BookService bookService, ObjectMapper objectMapper, BookSyncConfig config, MeterRegistry meterRegistry) {
+        this.bookService = bookService;
+        this.objectMapper = objectMapper;
+        this.config = config;
+
+        this.rebuilds = Timer
+                .builder("book.snapshot.rebuild")
+                .description("Time to patch and re-serialize the catalog snapshot")
+                .register(meterRegistry);
+        meterRegistry.gauge("book.snapshot.bytes", Tags.empty(), snapshotBytes);
+    }
+
+    /**
+     * Returns the current snapshot.
+     *
+     * @return the snapshot and its token
+     * @throws ResourceNotFoundException if the snapshot is disabled
+     * @throws SnapshotNotReadyException if the snapshot is not built yet
+     */
+    public Snapshot get() {
+        if (!config.getSnapshot().isEnabled()) {
+            throw new ResourceNotFoundException("Catalog snapshot is disabled");
+        }
+
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new SnapshotNotReadyException("Catalog snapshot is being built, please retry", NOT_READY_RETRY_AFTER_SECONDS);
+        }
+
+        return current;
+    }
+
+    /**
+     * Builds the snapshot on the first run, at startup, then applies the changes since the snapshot token
+     * and re-serializes the snapshot if any.
+     */
+    @Scheduled(fixedDelayString = "${book.sync.snapshot.rebuild-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (config.getSnapshot().isEnabled()) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        Timer.Sample sample = Timer.start();
+
+        boolean changed = snapshot == null;
+        BookChangesDto changes;
+        do {
+            changes = bookService.findChanges(token, config.getMaxChanges());
+            changes.getBooks().forEach(book -> books.put(book.getId(), book));
+            changes.getDeletedIds().forEach(books::remove);
+
+            changed |= !changes.getBooks().isEmpty() || !changes.getDeletedIds().isEmpty();
+            token = changes.getNextToken();
+        } while (changes.isHasMore());
+
+        if (changed) {
+            byte[] json = serialize();
+            snapshot = new Snapshot(token, json, gzip(json));
+            snapshotBytes.set(snapshot.json.length + snapshot.gzipped.length);
+            log.info("Catalog snapshot rebuilt with {} books, {} bytes, {} bytes gzipped",
+                    books.size(), snapshot.json.length, snapshot.gzipped.length);
+        }
+
+        sample.stop(rebuilds);
+    }
+
+    private byte[] serialize() {
+        BookChangesDto content = BookChangesDto
+                .builder()
+                .books(new ArrayList<>(books.values()))
+                .deletedIds(new ArrayList<>())
+                .nextToken(token)
+                .hasMore(false)
+                .build();
+
+        try {
+            return objectMapper.writeValueAsBytes(ApiResponse.success(content));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A serialized catalog snapshot, with its gzip copy.
+     */
+    public static final class Snapshot {
+        private final String token;
+        private final byte[] json;
+        private final byte[] gzipped;
+
+        private Snapshot(String token, byte[] json, byte[] gzipped) {
+            this.token = token;
+            this.json = json;
+            this.gzipped = gzipped;
+        }
+
+        /**
+         * @return the token to read the changes made after the snapshot
+         */
+        public String getToken() {
+            return token;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.asia.booklender.book.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Catalog sync configuration defined at application.yml
+ */
+@Configuration
+@ConfigurationProperties(prefix = "book.sync")
+@Data
+public class BookSyncConfig {
+    /*
+     * book.sync.settle_ms, margin below the start of the oldest open transaction up to which changes are returned,
+     * must exceed the clock skew between the application nodes and the database
+     */
+    private long settleMs = 5000;
+
+    /* book.sync.max_changes, max books per change page */
+    private int maxChanges = 5000;
+
+    /* book.sync.tombstone_retention_days, older sync tokens must reload the snapshot */
+    private int tombstoneRetentionDays = 30;
+
+    /* book.sync.tombstone_purge_interval_ms */
+    private long tombstonePurgeIntervalMs = 3_600_000;
+
+    /* book.sync.snapshot */
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * Full catalog snapshot, kept in memory and patched with the changes since its token.
+     */
+    @Data
+    public static class Snapshot {
+        /* book.sync.snapshot.enabled */
+        private boolean enabled = true;
+
+        /* book.sync.snapshot.rebuild_interval_ms */
+        private long rebuildIntervalMs = 60_000;
+    }
+}
@@ -0,0 +1,19 @@
+package com.asia.booklender.book.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Current inventory of a book, pushed on the availability stream.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookAvailabilityDto {
+    private Long bookId;
+    private Integer availableCopies;
+    private Integer version;
+}
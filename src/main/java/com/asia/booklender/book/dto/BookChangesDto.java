@@ -0,0 +1,32 @@
+package com.asia.booklender.book.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * Books created, updated or deleted since a sync token, or the full catalog in a snapshot.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(NON_NULL)
+public class BookChangesDto {
+    /* Created or updated books, the current state of each */
+    private List<BookDto> books;
+
+    private List<Long> deletedIds;
+
+    /* Token to read the next changes from */
+    private String nextToken;
+
+    /* More changes are ready, read them right away with the next token */
+    private boolean hasMore;
+}
@@ -1,5 +1,6 @@
 package com.asia.booklender.book.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,4 +21,8 @@ public class BookDto {
     private String isbn;
     private Integer totalCopies;
     private Integer availableCopies;
+
+    /* Validator of the book representation (ETag), not part of it */
+    @JsonIgnore
+    private Integer version;
 }
@@ -6,7 +6,11 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books",
+        indexes = {
+                // Catalog change feed, see SyncToken
+                @Index(name = "idx_book_updated_at", columnList = "updated_at, id")
+        })
 @Data
 @SuperBuilder(toBuilder = true)
 @EqualsAndHashCode(callSuper = true)
@@ -0,0 +1,41 @@
+package com.asia.booklender.book.entity;
+
+import com.asia.booklender.shared.entity.BasedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * A physical copy of a {@link Book}, used by copy-level allocation.
+ */
+@Entity
+@Table(name = "book_copies",
+        indexes = {
+                // Find an available copy of a book
+                @Index(name = "idx_book_status", columnList = "book_id, status")
+        })
+@Data
+@SuperBuilder(toBuilder = true)
+@EqualsAndHashCode(callSuper = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookCopy extends BasedEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "book_id", insertable = false, updatable = false)
+    private Long bookId;  // Direct FK access
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    public enum Status {
+        AVAILABLE, ON_LOAN
+    }
+}
@@ -0,0 +1,32 @@
+package com.asia.booklender.book.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Records the deletion of a book, so that catalog sync clients can drop it.
+ * Kept for {@code book.sync.tombstone-retention-days}.
+ */
+@Entity
+@Table(name = "book_tombstones",
+        indexes = {
+                // Deletions since a sync token, and purge
+                @Index(name = "idx_tombstone_deleted_at", columnList = "deleted_at")
+        })
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookTombstone {
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    @Column(name = "deleted_by", nullable = false)
+    private String deletedBy;
+}
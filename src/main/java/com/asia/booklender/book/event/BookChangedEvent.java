@@ -0,0 +1,20 @@
+package com.asia.booklender.book.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published within the transaction that creates, updates or deletes a book, or reconciles the inventory.
+ * A null book id means any book may have changed.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class BookChangedEvent {
+    private final Long bookId;
+
+    public static BookChangedEvent allBooks() {
+        return new BookChangedEvent(null);
+    }
+}
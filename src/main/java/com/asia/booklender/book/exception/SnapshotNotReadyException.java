@@ -0,0 +1,17 @@
+package com.asia.booklender.book.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when the catalog snapshot is requested before its first build completed.
+ * The request can be retried after {@code retryAfterSeconds}.
+ */
+@Getter
+public class SnapshotNotReadyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public SnapshotNotReadyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,10 @@
+package com.asia.booklender.book.exception;
+
+/**
+ * Exception thrown when a sync token is older than the tombstone retention, deletions since then may be lost.
+ */
+public class SyncTokenExpiredException extends RuntimeException {
+    public SyncTokenExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.asia.booklender.book.repository;
+
+/**
+ * Inventory of a book, see {@link BookRepository#findAvailabilityByIdIn(java.util.Collection)}.
+ */
+public interface BookAvailability {
+    Long getId();
+
+    Integer getAvailableCopies();
+
+    Integer getVersion();
+}
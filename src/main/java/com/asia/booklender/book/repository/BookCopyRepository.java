@@ -0,0 +1,129 @@
+package com.asia.booklender.book.repository;
+
+import com.asia.booklender.book.entity.BookCopy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+
+    /**
+     * Allocates one available copy of the book in a single statement.
+     * <p>Copies locked by concurrent borrowers are skipped, so N copies of the same book can be allocated in parallel.
+     *
+     * @param bookId the book id
+     * @return the allocated copy id, empty if the book has no available copy
+     */
+    @Query(value = "UPDATE book_copies SET status = 'ON_LOAN', updated_at = now() " +
+            "WHERE id = (SELECT c.id FROM book_copies c WHERE c.book_id = :bookId AND c.status = 'AVAILABLE' " +
+            "ORDER BY c.id LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id",
+            nativeQuery = true)
+    Optional<Long> allocateAvailableCopy(@Param("bookId") Long bookId);
+
+    /**
+     * Puts a copy back on the shelf.
+     *
+     * @param id the copy id
+     * @return number of affected rows
+     */
+    @Modifying
+    @Query(value = "UPDATE book_copies SET status = 'AVAILABLE', updated_at = now() WHERE id = :id", nativeQuery = true)
+    int releaseCopy(@Param("id") Long id);
+
+    /**
+     * Puts back a copy that is on loan without being referenced by an active loan,
+     * i.e. a copy provisioned for a loan made before copy-level allocation was enabled.
+     *
+     * @param bookId the book id
+     * @return number of affected rows, 0 if the book has no such copy
+     */
+    @Modifying
+    @Query(value = "UPDATE book_copies SET status = 'AVAILABLE', updated_at = now() " +
+            "WHERE id = (SELECT c.id FROM book_copies c WHERE c.book_id = :bookId AND c.status = 'ON_LOAN' " +
+            "AND NOT EXISTS (SELECT 1 FROM loans l WHERE l.copy_id = c.id AND l.returned_at IS NULL) " +
+            "ORDER BY c.id LIMIT 1 FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int releaseUntrackedCopy(@Param("bookId") Long bookId);
+
+    /**
+     * Tries to take the transaction-scoped Postgres advisory lock of the copy reconciliation, without waiting.
+     * The lock is released at commit or rollback. It uses the two-key form, whose key space is distinct from
+     * the single-key member locks.
+     *
+     * @return true if the lock was taken, false if another transaction holds it
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('book_copies.reconcile'), 0)", nativeQuery = true)
+    boolean tryLockReconciliation();
+
+    /**
+     * Creates the copies of books that have none yet.
+     * <p>The first {@code available_copies} copies are available, the rest are considered on loan.
+     *
+     * @return number of copies created
+     */
+    @Modifying
+    @Query(value = "INSERT INTO book_copies (book_id, status, created_by, created_at, updated_at) " +
+            "SELECT b.id, CASE WHEN s.n <= b.available_copies THEN 'AVAILABLE' ELSE 'ON_LOAN' END, 'system', now(), now() " +
+            "FROM books b CROSS JOIN LATERAL generate_series(1, b.total_copies) AS s(n) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM book_copies c WHERE c.book_id = b.id)",
+            nativeQuery = true)
+    int provisionNewBooks();
+
+    /**
+     * Creates the copies of a new book, within the transaction that creates it.
+     * <p>The first {@code available_copies} copies are available, the rest are considered on loan.
+     *
+     * @param bookId the book id
+     * @param createdBy the creator of the book
+     * @return number of copies created
+     */
+    @Modifying
+    @Query(value = "INSERT INTO book_copies (book_id, status, created_by, created_at, updated_at) " +
+            "SELECT b.id, CASE WHEN s.n <= b.available_copies THEN 'AVAILABLE' ELSE 'ON_LOAN' END, :createdBy, now(), now() " +
+            "FROM books b CROSS JOIN LATERAL generate_series(1, b.total_copies) AS s(n) " +
+            "WHERE b.id = :bookId",
+            nativeQuery = true)
+    int provisionBook(@Param("bookId") Long bookId, @Param("createdBy") String createdBy);
+
+    /**
+     * Deletes the copies of a book, before the book itself.
+     *
+     * @param bookId the book id
+     * @return number of copies deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM book_copies WHERE book_id = :bookId", nativeQuery = true)
+    int deleteByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * Creates the copies added to books since they were provisioned, as available copies.
+     *
+     * @return number of copies created
+     */
+    @Modifying
+    @Query(value = "INSERT INTO book_copies (book_id, status, created_by, created_at, updated_at) " +
+            "SELECT b.id, 'AVAILABLE', 'system', now(), now() " +
+            "FROM books b JOIN (SELECT book_id, count(*) AS copies FROM book_copies GROUP BY book_id) c ON c.book_id = b.id " +
+            "CROSS JOIN LATERAL generate_series(1, b.total_copies - c.copies) AS s(n)",
+            nativeQuery = true)
+    int provisionAddedCopies();
+
+    /**
+     * Derives {@code books.available_copies} from the available copies, touching only the books that drifted.
+     *
+     * @return number of books updated
+     */
+    @Modifying
+    @Query(value = "UPDATE books b SET available_copies = c.available, version = b.version + 1, updated_at = now() " +
+            "FROM (SELECT book_id, count(*) FILTER (WHERE status = 'AVAILABLE') AS available " +
+            "FROM book_copies GROUP BY book_id) c " +
+            "WHERE b.id = c.book_id AND b.available_copies <> c.available",
+            nativeQuery = true)
+    int reconcileAvailableCopies();
+}
@@ -0,0 +1,104 @@
+package com.asia.booklender.book.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Plain JDBC access to the books and book_copies tables, for set-based writes over many rows in one statement,
+ * and for the horizon of the catalog change feed.
+ * <p>
+ * Runs within the surrounding JPA transaction.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookJdbcRepository {
+    /*
+     * Rows written by a transaction still open carry an updated_at of at least its start (now() and
+     * CURRENT_TIMESTAMP are the transaction start), so nothing committed later can land before the horizon.
+     * Cast to timestamp like the updated_at columns.
+     */
+    private static final String CHANGE_HORIZON_SQL =
+            "SELECT LEAST(clock_timestamp(), COALESCE(MIN(xact_start), clock_timestamp()))::timestamp " +
+            "FROM pg_stat_activity " +
+            "WHERE datname = current_database() AND xact_start IS NOT NULL AND pid <> pg_backend_pid()";
+
+    private static final String LOCK_BOOKS_SQL =
+            "SELECT id FROM books WHERE id = ANY(?) ORDER BY id FOR UPDATE";
+
+    private static final String INCREMENT_AVAILABLE_COPIES_SQL =
+            "UPDATE books b SET available_copies = b.available_copies + d.copies, version = b.version + 1, updated_at = now() " +
+            "FROM (SELECT unnest(?::bigint[]) AS book_id, unnest(?::int[]) AS copies) d " +
+            "WHERE b.id = d.book_id";
+
+    private static final String RELEASE_COPIES_SQL =
+            "UPDATE book_copies SET status = 'AVAILABLE', updated_at = now() WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the latest instant up to which the committed book changes are complete, from the database clock:
+     * the start of the oldest open transaction of the database, or now if there is none.
+     *
+     * @return the change feed horizon
+     */
+    public Instant changeHorizon() {
+        return jdbcTemplate.queryForObject(CHANGE_HORIZON_SQL, Timestamp.class).toInstant();
+    }
+
+    /**
+     * Puts copies back on the shelf of several books in one statement.
+     * <p>The version is bumped as well so concurrent optimistic writers still detect the change.
+     * <p>Postgres does not lock the rows of an {@code UPDATE ... FROM} in any given order, so the books are
+     * locked first in ascending id order, the order of the other multi-book writers, to avoid deadlocks.
+     *
+     * @param copiesByBook number of copies to add per book id, in ascending book id order
+     * @return number of affected books
+     */
+    public int incrementAvailableCopies(SortedMap<Long, Integer> copiesByBook) {
+        if (copiesByBook.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(LOCK_BOOKS_SQL);
+                    ps.setArray(1, connection.createArrayOf("bigint", copiesByBook.keySet().toArray()));
+                    return ps;
+                },
+                rs -> {
+                });
+
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INCREMENT_AVAILABLE_COPIES_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", copiesByBook.keySet().toArray()));
+            ps.setArray(2, connection.createArrayOf("int", copiesByBook.values().toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Puts several copies back on the shelf in one statement.
+     *
+     * @param copyIds the copy ids
+     * @return number of affected rows
+     */
+    public int releaseCopies(List<Long> copyIds) {
+        if (copyIds.isEmpty()) {
+            return 0;
+        }
+
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RELEASE_COPIES_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", copyIds.toArray()));
+            return ps;
+        });
+    }
+}
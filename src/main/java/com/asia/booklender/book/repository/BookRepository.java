@@ -2,16 +2,116 @@ package com.asia.booklender.book.repository;
 
 import com.asia.booklender.book.entity.Book;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByIsbn(String isbn);
 
+    /**
+     * Reads the books after a keyset position, an index range scan when sorted by id.
+     */
+    Window<Book> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Reads a page without counting the total.
+     */
+    Slice<Book> findSliceBy(Pageable pageable);
+
+    /**
+     * Reads the version of a book only, to validate a cached copy.
+     */
+    @Query("SELECT b.version FROM Book b WHERE b.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Long id);
+
+    /**
+     * Reads the books changed after a sync position and up to an instant, in change order.
+     *
+     * @param since the updatedAt of the position
+     * @param afterId the id of the position, among the books changed at {@code since}
+     * @param upTo the latest change to return
+     * @param pageable the number of books to read
+     * @return the changed books
+     */
+    @Query("SELECT b FROM Book b " +
+            "WHERE b.updatedAt <= :upTo AND (b.updatedAt > :since OR (b.updatedAt = :since AND b.id > :afterId)) " +
+            "ORDER BY b.updatedAt, b.id")
+    List<Book> findChanged(@Param("since") Instant since,
+                           @Param("afterId") Long afterId,
+                           @Param("upTo") Instant upTo,
+                           Pageable pageable);
+
+    /**
+     * Reads the inventory of several books, without loading the entities.
+     */
+    @Query("SELECT b.id AS id, b.availableCopies AS availableCopies, b.version AS version FROM Book b WHERE b.id IN :ids")
+    List<BookAvailability> findAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the books with the most loans, most borrowed first.
+     *
+     * @param limit the number of books
+     * @return the most borrowed books
+     */
+    @Query(value = "SELECT b.* FROM books b " +
+            "JOIN (SELECT book_id, count(*) AS loans FROM loans GROUP BY book_id ORDER BY loans DESC LIMIT :limit) t " +
+            "ON t.book_id = b.id ORDER BY t.loans DESC",
+            nativeQuery = true)
+    List<Book> findMostBorrowed(@Param("limit") int limit);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Book> findWithLockById(Long id);
+
+    /**
+     * Locks the book row with {@code FOR UPDATE NOWAIT}, failing immediately if another transaction holds it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    Optional<Book> findWithLockNoWaitById(Long id);
+
+    /**
+     * Sets the Postgres {@code lock_timeout} for the rest of the current transaction.
+     *
+     * @param timeout the timeout, e.g. {@code 200ms}
+     * @return the new setting
+     */
+    @Query(value = "SELECT set_config('lock_timeout', :timeout, true)", nativeQuery = true)
+    String setLockTimeout(@Param("timeout") String timeout);
+
+    /**
+     * Takes one copy off the shelf in a single statement, guarded by the availability check.
+     * <p>The version is bumped as well so concurrent optimistic writers still detect the change,
+     * and updatedAt so that catalog sync clients do.
+     *
+     * @param id the book id
+     * @return number of affected rows, 0 if the book does not exist or has no available copies
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1, b.version = b.version + 1, b.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE b.id = :id AND b.availableCopies > 0")
+    int decrementAvailableCopies(@Param("id") Long id);
+
+    /**
+     * Puts one copy back on the shelf in a single statement, without loading or locking the book.
+     *
+     * @param id the book id
+     * @return number of affected rows, 0 if the book does not exist
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1, b.version = b.version + 1, b.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE b.id = :id")
+    int incrementAvailableCopies(@Param("id") Long id);
 }
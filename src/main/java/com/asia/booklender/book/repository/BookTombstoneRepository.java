@@ -0,0 +1,24 @@
+package com.asia.booklender.book.repository;
+
+import com.asia.booklender.book.entity.BookTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface BookTombstoneRepository extends JpaRepository<BookTombstone, Long> {
+    /**
+     * Finds the books deleted within {@code (after, upTo]}.
+     */
+    @Query("SELECT t.bookId FROM BookTombstone t WHERE t.deletedAt > :after AND t.deletedAt <= :upTo ORDER BY t.deletedAt")
+    List<Long> findDeletedBookIds(@Param("after") Instant after, @Param("upTo") Instant upTo);
+
+    @Modifying
+    @Query("DELETE FROM BookTombstone t WHERE t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") Instant before);
+}
@@ -1,10 +1,15 @@
 package com.asia.booklender.book.service;
 
 import com.asia.booklender.book.dto.BookAdminDto;
+import com.asia.booklender.book.dto.BookChangesDto;
 import com.asia.booklender.book.dto.BookDto;
 import com.asia.booklender.book.dto.CreateOrUpdateBookRequest;
+import com.asia.booklender.shared.api.CursorPage;
+import com.asia.booklender.shared.api.ScrollRequest;
+import com.asia.booklender.shared.enums.CountMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface BookService {
     /**
@@ -28,9 +33,18 @@ public interface BookService {
      * Retrieves all available books within the given page.
      *
      * @param page {@link Page}
-     * @return all available books
+     * @param countMode how to count the total
+     * @return all available books, a {@link Page} unless the count mode is {@link CountMode#NONE}
      */
-    Page<BookDto> findAll(Pageable page);
+    Slice<BookDto> findAll(Pageable page, CountMode countMode);
+
+    /**
+     * Retrieves the books after the cursor of the request.
+     *
+     * @param request {@link ScrollRequest}
+     * @return the page of books, with the cursor of the next page
+     */
+    CursorPage<BookDto> scrollAll(ScrollRequest request);
 
     /**
      * Retrieve the book detail by id
@@ -40,6 +54,24 @@ public interface BookService {
      */
     BookDto findById(Long id);
 
+    /**
+     * Retrieve the version of a book, without reading the book when possible
+     *
+     * @param id the book id
+     * @return the book version
+     */
+    Integer findVersion(Long id);
+
+    /**
+     * Retrieve the books created, updated or deleted since a sync token.
+     * Changes younger than {@code book.sync.settle-ms} are left for the next call.
+     *
+     * @param since the token of the previous call or snapshot, blank for all books
+     * @param limit max number of books
+     * @return the changes, with the token of the next call
+     */
+    BookChangesDto findChanges(String since, int limit);
+
     /**
      * Deletes a book by id
      * @param id the book id
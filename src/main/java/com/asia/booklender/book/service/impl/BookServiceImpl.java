@@ -1,33 +1,62 @@
 package com.asia.booklender.book.service.impl;
 
+import com.asia.booklender.book.cache.BookCatalogCache;
+import com.asia.booklender.book.config.BookSyncConfig;
 import com.asia.booklender.book.dto.BookAdminDto;
+import com.asia.booklender.book.dto.BookChangesDto;
 import com.asia.booklender.book.dto.BookDto;
 import com.asia.booklender.book.dto.CreateOrUpdateBookRequest;
 import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.book.entity.BookTombstone;
+import com.asia.booklender.book.event.BookChangedEvent;
+import com.asia.booklender.book.exception.SyncTokenExpiredException;
 import com.asia.booklender.book.mapper.BookAdminMapper;
 import com.asia.booklender.book.mapper.BookMapper;
+import com.asia.booklender.book.repository.BookCopyRepository;
+import com.asia.booklender.book.repository.BookJdbcRepository;
 import com.asia.booklender.book.repository.BookRepository;
+import com.asia.booklender.book.repository.BookTombstoneRepository;
 import com.asia.booklender.book.service.BookService;
+import com.asia.booklender.book.sync.SyncToken;
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.shared.api.CursorPage;
+import com.asia.booklender.shared.api.ScrollRequest;
+import com.asia.booklender.shared.enums.CountMode;
+import com.asia.booklender.shared.enums.LockStrategy;
 import com.asia.booklender.shared.exception.AccessDeniedException;
 import com.asia.booklender.shared.exception.ResourceNotFoundException;
+import com.asia.booklender.shared.repository.TableStatisticsRepository;
 import com.asia.booklender.shared.security.CurrentUser;
 import com.asia.booklender.shared.security.SecurityUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService {
     private final BookRepository bookRepository;
+    private final BookTombstoneRepository bookTombstoneRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final BookJdbcRepository bookJdbcRepository;
+    private final LoanRulesConfig borrowingRules;
+    private final BookSyncConfig bookSyncConfig;
     private final BookMapper bookMapper;
     private final BookAdminMapper bookAdminMapper;
+    private final TableStatisticsRepository tableStatisticsRepository;
+    private final BookCatalogCache bookCatalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -41,6 +70,13 @@ public class BookServiceImpl implements BookService {
         book.setCreatedBy(currentUser.getUsername());
         book = bookRepository.save(book);
 
+        // Copies are borrowable right away, rather than after the next reconciliation
+        if (borrowingRules.getBorrowLockStrategy() == LockStrategy.COPY_ALLOCATION) {
+            bookRepository.flush();
+            bookCopyRepository.provisionBook(book.getId(), currentUser.getUsername());
+        }
+        eventPublisher.publishEvent(new BookChangedEvent(book.getId()));
+
         log.info("Book successfully created id={} title={} isbn={} by user={}",
                 book.getId(),
                 book.getTitle(),
@@ -91,6 +127,7 @@ public class BookServiceImpl implements BookService {
 
         // Save the updated book
         book = bookRepository.save(book);
+        eventPublisher.publishEvent(new BookChangedEvent(book.getId()));
 
         log.info("Book successfully updated id={} by user={}", id, currentUser.getUsername());
         return bookAdminMapper.toBookAdminDto(book);
@@ -106,20 +143,82 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
-    public Page<BookDto> findAll(Pageable pageable) {
-        return bookRepository
-                .findAll(pageable)
+    public Slice<BookDto> findAll(Pageable pageable, CountMode countMode) {
+        return tableStatisticsRepository
+                .read(countMode, pageable, "books", bookRepository::findAll, bookRepository::findSliceBy, bookRepository::count)
                 .map(bookMapper::toDto);
     }
 
+    @Override
+    public CursorPage<BookDto> scrollAll(ScrollRequest request) {
+        return CursorPage.of(
+                bookRepository
+                        .findAllBy(request.getPosition(), request.getLimit(), request.getSort())
+                        .map(bookMapper::toDto),
+                request,
+                request.isIncludeTotal() ? bookRepository.count() : null);
+    }
+
     @Override
     public BookDto findById(Long id) {
-        return bookRepository
-                .findById(id)
-                .map(bookMapper::toDto)
+        return bookCatalogCache
+                .get(id)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Book id %s not found", id)));
     }
 
+    @Override
+    public Integer findVersion(Long id) {
+        return bookCatalogCache
+                .version(id)
+                .orElseThrow(() -> new ResourceNotFoundException(String.format("Book id %s not found", id)));
+    }
+
+    @Override
+    public BookChangesDto findChanges(String since, int limit) {
+        SyncToken from = SyncToken.decode(since);
+        Instant horizon = bookJdbcRepository.changeHorizon();
+
+        if (from != SyncToken.START
+                && from.getUpdatedAt().isBefore(horizon.minus(bookSyncConfig.getTombstoneRetentionDays(), ChronoUnit.DAYS))) {
+            throw new SyncTokenExpiredException("Sync token is older than the deletion history, reload the snapshot");
+        }
+
+        // Transactions still open may commit changes from their start on, however long they run.
+        // The settle margin covers the timestamps written from the application clock (entity saves, tombstones).
+        Instant upTo = horizon.minusMillis(bookSyncConfig.getSettleMs());
+        if (!from.getUpdatedAt().isBefore(upTo)) {
+            return BookChangesDto.builder().books(List.of()).deletedIds(List.of()).nextToken(from.encode()).build();
+        }
+
+        List<Book> books = bookRepository.findChanged(from.getUpdatedAt(), from.getBookId(), upTo, PageRequest.of(0, limit + 1));
+        boolean hasMore = books.size() > limit;
+        if (hasMore) {
+            books = books.subList(0, limit);
+        }
+
+        SyncToken next = hasMore ? SyncToken.after(books.get(books.size() - 1)) : SyncToken.upTo(upTo);
+        List<Long> deletedIds = bookTombstoneRepository.findDeletedBookIds(from.getUpdatedAt(), next.getUpdatedAt());
+
+        return BookChangesDto
+                .builder()
+                .books(books.stream().map(bookMapper::toDto).toList())
+                .deletedIds(deletedIds)
+                .nextToken(next.encode())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Removes the tombstones older than the retention, sync tokens older than that are rejected.
+     */
+    @Scheduled(fixedDelayString = "${book.sync.tombstone-purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeTombstones() {
+        Instant before = Instant.now().minus(bookSyncConfig.getTombstoneRetentionDays(), ChronoUnit.DAYS);
+        int deleted = bookTombstoneRepository.deleteOlderThan(before);
+        log.debug("Purged {} book tombstones", deleted);
+    }
+
     @Override
     @Transactional
     public void deleteById(Long id) {
@@ -131,7 +230,16 @@ public class BookServiceImpl implements BookService {
         Book book = bookRepository
                 .findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(String.format("Book id %s not found", id)));
+        // Copies reference the book, provisioned under copy-level allocation
+        bookCopyRepository.deleteByBookId(id);
         bookRepository.delete(book);
+        bookTombstoneRepository.save(BookTombstone
+                .builder()
+                .bookId(id)
+                .deletedAt(Instant.now())
+                .deletedBy(currentUser.getUsername())
+                .build());
+        eventPublisher.publishEvent(new BookChangedEvent(id));
 
         log.warn("Book deleted id={} by user={}", id, currentUser.getUsername());
     }
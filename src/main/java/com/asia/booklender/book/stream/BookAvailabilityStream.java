@@ -0,0 +1,159 @@
+package com.asia.booklender.book.stream;
+
+import com.asia.booklender.book.dto.BookAvailabilityDto;
+import com.asia.booklender.book.event.BookChangedEvent;
+import com.asia.booklender.book.repository.BookAvailability;
+import com.asia.booklender.book.repository.BookRepository;
+import com.asia.booklender.loan.event.LoanBorrowedEvent;
+import com.asia.booklender.loan.event.LoanReturnedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the inventory of books to Server-Sent Events subscribers, after their borrows, returns and updates commit.
+ * <p>
+ * Changed book ids are collected after commit and flushed every {@code book.availability-stream.flush-interval-ms}:
+ * the current {@code (availableCopies, version)} of all of them is read in one query and emitted once per book,
+ * so that rapid updates to the same book are coalesced. Events carry a sequence number as SSE id; a gap means
+ * that events were dropped and the client should reload the catalog.
+ * </p>
+ * <p>
+ * Subscribers are reactive, no thread is held per connection. Each subscriber has a buffer of
+ * {@code book.availability-stream.buffer-size} events; when a slow subscriber overflows it, the oldest events
+ * are dropped. Idle connections are kept alive with a comment every {@code heartbeat-seconds}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class BookAvailabilityStream {
+    private static final String EVENT_NAME = "availability";
+
+    private final BookRepository bookRepository;
+    private final int bufferSize;
+    private final Duration heartbeat;
+    private final Counter emitted;
+    private final Counter dropped;
+
+    private final Sinks.Many<ServerSentEvent<BookAvailabilityDto>> sink = Sinks.many().multicast().directBestEffort();
+    private final Set<Long> changedBookIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private long sequence;
+
+    public BookAvailabilityStream(BookRepository bookRepository,
+                                  @Value("${book.availability-stream.buffer-size:256}") int bufferSize,
+                                  @Value("${book.availability-stream.heartbeat-seconds:30}") long heartbeatSeconds,
+                                  MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.bufferSize = bufferSize;
+        this.heartbeat = Duration.ofSeconds(heartbeatSeconds);
+
+        this.emitted = Counter
+                .builder("book.availability.stream.events")
+                .description("Availability events emitted, once per changed book and flush")
+                .register(meterRegistry);
+        this.dropped = Counter
+                .builder("book.availability.stream.dropped")
+                .description("Availability events dropped from the buffer of a slow subscriber")
+                .register(meterRegistry);
+        meterRegistry.gauge("book.availability.stream.subscribers", Tags.empty(), subscribers);
+    }
+
+    /**
+     * @return the availability events from now on, interleaved with heartbeat comments
+     */
+    public Flux<ServerSentEvent<BookAvailabilityDto>> subscribe() {
+        Flux<ServerSentEvent<BookAvailabilityDto>> events = sink
+                .asFlux()
+                .onBackpressureBuffer(bufferSize, event -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+
+        Flux<ServerSentEvent<BookAvailabilityDto>> heartbeats = Flux
+                .interval(heartbeat)
+                .map(tick -> ServerSentEvent.<BookAvailabilityDto>builder().comment("heartbeat").build());
+
+        return Flux
+                .merge(events, heartbeats)
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        // A reconciliation of all books is not streamed, clients pick it up on their next catalog load
+        if (event.getBookId() != null) {
+            changed(event.getBookId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBorrowed(LoanBorrowedEvent event) {
+        changed(event.getBookId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReturned(LoanReturnedEvent event) {
+        changed(event.getBookId());
+    }
+
+    /**
+     * Emits the current inventory of the books changed since the last flush.
+     * A fixed-delay task never overlaps itself, so that emissions to the sink are serialized.
+     * If the inventory cannot be read, the books are flushed again on the next run.
+     */
+    @Scheduled(fixedDelayString = "${book.availability-stream.flush-interval-ms:250}")
+    public void flush() {
+        if (changedBookIds.isEmpty()) {
+            return;
+        }
+
+        List<Long> bookIds = new ArrayList<>(changedBookIds);
+        changedBookIds.removeAll(bookIds);
+
+        if (subscribers.get() == 0) {
+            return;
+        }
+
+        List<BookAvailability> availabilities;
+        try {
+            availabilities = bookRepository.findAvailabilityByIdIn(bookIds);
+        } catch (RuntimeException ex) {
+            changedBookIds.addAll(bookIds);
+            throw ex;
+        }
+
+        for (BookAvailability availability : availabilities) {
+            BookAvailabilityDto dto = new BookAvailabilityDto(
+                    availability.getId(), availability.getAvailableCopies(), availability.getVersion());
+
+            sink.tryEmitNext(ServerSentEvent
+                    .builder(dto)
+                    .id(String.valueOf(++sequence))
+                    .event(EVENT_NAME)
+                    .build());
+            emitted.increment();
+        }
+
+        log.debug("Availability flushed for {} books to {} subscribers", availabilities.size(), subscribers.get());
+    }
+
+    private void changed(Long bookId) {
+        changedBookIds.add(bookId);
+    }
+}
@@ -0,0 +1,71 @@
+package com.asia.booklender.book.sync;
+
+import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.shared.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the catalog change feed: the {@code (updatedAt, id)} of the last book returned.
+ * Encoded as an opaque token, like the pagination cursors.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class SyncToken {
+    /* Before any change, the token of a full load */
+    public static final SyncToken START = new SyncToken(Instant.EPOCH, 0L);
+
+    private static final String VERSION = "1";
+
+    private final Instant updatedAt;
+    private final Long bookId;
+
+    /**
+     * @return the position after a book
+     */
+    public static SyncToken after(Book book) {
+        return new SyncToken(book.getUpdatedAt(), book.getId());
+    }
+
+    /**
+     * @return the position after every change up to an instant
+     */
+    public static SyncToken upTo(Instant instant) {
+        return new SyncToken(instant, Long.MAX_VALUE);
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, updatedAt.toString(), String.valueOf(bookId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token, a blank token being the start of the feed.
+     *
+     * @param token the opaque token
+     * @return the position to read changes after
+     * @throws InvalidCursorException if the token is malformed
+     */
+    public static SyncToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new InvalidCursorException("Malformed sync token");
+            }
+            return new SyncToken(Instant.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidCursorException("Malformed sync token");
+        }
+    }
+}
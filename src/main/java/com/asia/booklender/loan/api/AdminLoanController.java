@@ -1,19 +1,19 @@
 package com.asia.booklender.loan.api;
 
+import com.asia.booklender.loan.dto.BatchReturnRequest;
 import com.asia.booklender.loan.dto.LoanDto;
+import com.asia.booklender.loan.dto.LoanReturnOutcomeDto;
 import com.asia.booklender.loan.service.LoanService;
 import com.asia.booklender.shared.api.ApiPaginationResponse;
+import com.asia.booklender.shared.api.ApiResponse;
 import com.asia.booklender.shared.api.PaginationRequest;
 import com.asia.booklender.shared.exception.AccessDeniedException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.ModelAttribute;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
@@ -34,8 +34,25 @@ public class AdminLoanController {
      */
     @GetMapping
     public ResponseEntity<ApiPaginationResponse<List<LoanDto>>> getAll(@Valid @ModelAttribute PaginationRequest request) {
-        Page<LoanDto> allLoan = loanService.findAll(request.toPageable());
+        if (request.isCursorMode()) {
+            return ResponseEntity.ok(ApiPaginationResponse.success(loanService.scrollAll(request.toScrollRequest())));
+        }
+
+        Slice<LoanDto> allLoan = loanService.findAll(request.toPageable(), request.getCount());
 
         return ResponseEntity.ok(ApiPaginationResponse.success(allLoan));
     }
+
+    /**
+     * API to return many book loans at once, e.g. the content of the book-drop bin.
+     *
+     * @param request the IDs of the loans to return
+     * @return the outcome of each loan: returned, already returned or not found
+     *
+     * @throws AccessDeniedException for Members
+     */
+    @PostMapping("/return-batch")
+    public ResponseEntity<ApiResponse<List<LoanReturnOutcomeDto>>> returnAll(@Valid @RequestBody BatchReturnRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(loanService.returnAll(request.getLoanIds())));
+    }
 }
@@ -1,6 +1,8 @@
 package com.asia.booklender.loan.api;
 
+import com.asia.booklender.loan.dto.BatchLoanRequest;
 import com.asia.booklender.loan.dto.LoanDto;
+import com.asia.booklender.loan.exception.BookNotAvailableException;
 import com.asia.booklender.loan.exception.MaxLoansExceededException;
 import com.asia.booklender.loan.exception.OverdueLoanException;
 import com.asia.booklender.loan.service.LoanService;
@@ -14,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -46,6 +49,25 @@ public class LoanController {
                 .body(ApiResponse.success(loanService.loan(bookId)));
     }
 
+    /**
+     * Borrows several books at once for the authenticated member, e.g. from a self-checkout kiosk.
+     * Either all books are borrowed or none.
+     *
+     * @param request the IDs of the books to borrow
+     * @return the created book loans
+     *
+     * @throws ResourceNotFoundException  if a book not found
+     * @throws MaxLoansExceededException  if the loans would exceed the loan limit
+     * @throws OverdueLoanException       if member has overdue loans
+     * @throws BookNotAvailableException  if a book has no copies available
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<LoanDto>>> loanAll(@Valid @RequestBody BatchLoanRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(ApiResponse.success(loanService.loanAll(request.getBookIds())));
+    }
+
     /**
      * Returns a borrowed book.
      * Members can only return their own loans.
@@ -67,7 +89,8 @@ public class LoanController {
     }
 
     /**
-     * Retrieves loans for the authenticated member.
+     * Retrieves loans for the authenticated member, with the member loan version as ETag.
+     * A matching {@code If-None-Match} is answered with 304 without reading the loans.
      *
      * @param activeOnly filter to show only active loans
      *
@@ -76,10 +99,25 @@ public class LoanController {
     @GetMapping("/my")
     public ResponseEntity<ApiPaginationResponse<List<LoanDto>>> getMyLoans(
             @Valid @ModelAttribute PaginationRequest pageRequest,
-            @RequestParam(required = false, defaultValue = "false") boolean activeOnly
+            @RequestParam(required = false, defaultValue = "false") boolean activeOnly,
+            WebRequest webRequest
             ) {
+        // Read before the loans, so that the tag is never newer than the body
+        String etag = loanService.findMyLoansTag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        if (pageRequest.isCursorMode()) {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .eTag(etag)
+                    .body(ApiPaginationResponse.success(loanService.scrollMy(activeOnly, pageRequest.toScrollRequest())));
+        }
+
         return ResponseEntity
                 .status(HttpStatus.OK)
+                .eTag(etag)
                 .body(ApiPaginationResponse.success(loanService.findMy(activeOnly, pageRequest.toPageable())));
     }
 
@@ -0,0 +1,61 @@
+package com.asia.booklender.loan.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Immutable snapshot of what decides whether a member may borrow: the number of active loans
+ * and the earliest due date among them.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode(exclude = "loadedAt")
+@ToString
+public class MemberEligibility {
+    /* Active loan count */
+    private final int activeLoans;
+
+    /* Earliest due date of the active loans, null when there are none */
+    private final Instant earliestDueAt;
+
+    /* When the snapshot was loaded from the database, in epoch millis */
+    private final long loadedAt;
+
+    /**
+     * Check if the member has an active loan past its due date.
+     *
+     * @param now the current time
+     * @return true if overdue, false otherwise.
+     */
+    public boolean hasOverdue(Instant now) {
+        return earliestDueAt != null && earliestDueAt.isBefore(now);
+    }
+
+    MemberEligibility borrowed(Instant dueAt) {
+        // Same precision as the database column
+        dueAt = dueAt.truncatedTo(ChronoUnit.MICROS);
+        Instant earliest = earliestDueAt == null || dueAt.isBefore(earliestDueAt) ? dueAt : earliestDueAt;
+        return new MemberEligibility(activeLoans + 1, earliest, loadedAt);
+    }
+
+    /**
+     * @return the snapshot after the return, or null if it can not be derived and must be reloaded
+     */
+    MemberEligibility returned(Instant dueAt) {
+        if (activeLoans <= 1) {
+            return new MemberEligibility(0, null, loadedAt);
+        }
+
+        // The next earliest due date is unknown when the earliest loan is returned
+        if (dueAt == null || !dueAt.isAfter(earliestDueAt)) {
+            return null;
+        }
+
+        return new MemberEligibility(activeLoans - 1, earliestDueAt, loadedAt);
+    }
+}
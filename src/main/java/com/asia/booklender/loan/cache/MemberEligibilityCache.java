@@ -0,0 +1,158 @@
+package com.asia.booklender.loan.cache;
+
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.loan.event.LoanBorrowedEvent;
+import com.asia.booklender.loan.event.LoanReturnedEvent;
+import com.asia.booklender.loan.repository.ActiveLoanSummary;
+import com.asia.booklender.loan.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory cache of {@link MemberEligibility} per member id, so that borrow validation is a memory lookup.
+ * <p>
+ * Entries are loaded lazily from the database on a miss, then kept up to date after commit
+ * from {@link LoanBorrowedEvent} and {@link LoanReturnedEvent}. Entries expire after {@code ttlSeconds}
+ * so that loans made on other nodes are eventually seen, and are removed every {@code purgeIntervalMs}.
+ * </p>
+ * <p>
+ * A load racing with a committed change is not cached: every change bumps a per-stripe sequence and
+ * a load is only stored if the sequence of its stripe did not move meanwhile.
+ * </p>
+ * <p>
+ * In verification mode, every cache hit is compared with the database. Mismatches are counted
+ * in {@code loan.eligibility.cache.mismatch} and the database answer wins.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MemberEligibilityCache {
+    private static final int STRIPES = 1024;
+
+    private final LoanRepository loanRepository;
+    private final LoanRulesConfig.EligibilityCache config;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter mismatches;
+
+    private final ConcurrentMap<Long, MemberEligibility> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray stripeSequences = new AtomicLongArray(STRIPES);
+
+    public MemberEligibilityCache(LoanRepository loanRepository, LoanRulesConfig borrowingRules, MeterRegistry meterRegistry) {
+        this.loanRepository = loanRepository;
+        this.config = borrowingRules.getEligibilityCache();
+
+        this.hits = meterRegistry.counter("loan.eligibility.cache", "result", "hit");
+        this.misses = meterRegistry.counter("loan.eligibility.cache", "result", "miss");
+        this.mismatches = Counter
+                .builder("loan.eligibility.cache.mismatch")
+                .description("Cache answers that differ from the database in verification mode")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("loan.eligibility.cache.size", Tags.empty(), entries);
+    }
+
+    /**
+     * Returns the eligibility snapshot of a member, from memory if cached.
+     *
+     * @param memberId the member id
+     * @return the member eligibility
+     */
+    public MemberEligibility get(Long memberId) {
+        if (!config.isEnabled()) {
+            return load(memberId);
+        }
+
+        MemberEligibility cached = entries.get(memberId);
+
+        if (cached != null && !isExpired(cached)) {
+            hits.increment();
+            return config.isVerify() ? verify(memberId, cached) : cached;
+        }
+
+        misses.increment();
+        return loadAndCache(memberId);
+    }
+
+    /**
+     * Reads the eligibility snapshot of a member from the database and caches it.
+     * Used when the answer must be exact, e.g. under the member borrow guard.
+     *
+     * @param memberId the member id
+     * @return the member eligibility
+     */
+    public MemberEligibility refresh(Long memberId) {
+        return config.isEnabled() ? loadAndCache(memberId) : load(memberId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBorrowed(LoanBorrowedEvent event) {
+        stripeSequences.incrementAndGet(stripe(event.getMemberId()));
+        entries.computeIfPresent(event.getMemberId(), (id, eligibility) -> eligibility.borrowed(event.getDueAt()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReturned(LoanReturnedEvent event) {
+        stripeSequences.incrementAndGet(stripe(event.getMemberId()));
+        entries.computeIfPresent(event.getMemberId(), (id, eligibility) -> eligibility.returned(event.getDueAt()));
+    }
+
+    /**
+     * Removes expired entries, so that the members seen once do not fill the cache for good.
+     */
+    @Scheduled(fixedDelayString = "${loan.rules.eligibility-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        if (!entries.isEmpty()) {
+            entries.values().removeIf(this::isExpired);
+        }
+    }
+
+    private MemberEligibility loadAndCache(Long memberId) {
+        int stripe = stripe(memberId);
+        long sequence = stripeSequences.get(stripe);
+
+        MemberEligibility loaded = load(memberId);
+
+        // Skip caching if a change committed during the load, or if the cache is full
+        if (stripeSequences.get(stripe) == sequence && (entries.size() < config.getMaxEntries() || entries.containsKey(memberId))) {
+            entries.put(memberId, loaded);
+        }
+
+        return loaded;
+    }
+
+    private MemberEligibility verify(Long memberId, MemberEligibility cached) {
+        MemberEligibility actual = load(memberId);
+
+        if (!actual.equals(cached)) {
+            mismatches.increment();
+            log.warn("Eligibility cache mismatch for member {}. Cached: {}, database: {}", memberId, cached, actual);
+            entries.put(memberId, actual);
+        }
+
+        return actual;
+    }
+
+    private MemberEligibility load(Long memberId) {
+        ActiveLoanSummary summary = loanRepository.summarizeActiveLoans(memberId);
+        return new MemberEligibility(summary.getActiveLoans().intValue(), summary.getEarliestDueAt(), System.currentTimeMillis());
+    }
+
+    private boolean isExpired(MemberEligibility eligibility) {
+        return System.currentTimeMillis() - eligibility.getLoadedAt() > config.getTtlSeconds() * 1000L;
+    }
+
+    private int stripe(Long memberId) {
+        long hash = memberId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 54) & (STRIPES - 1);
+    }
+}
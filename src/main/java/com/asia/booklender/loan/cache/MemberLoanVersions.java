@@ -0,0 +1,167 @@
+package com.asia.booklender.loan.cache;
+
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.loan.event.LoanBorrowedEvent;
+import com.asia.booklender.loan.event.LoanReturnedEvent;
+import com.asia.booklender.member.repository.MemberJdbcRepository;
+import com.asia.booklender.member.repository.MemberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-member loan change counter ({@code members.loan_version}), the validator of the member loan listing.
+ * <p>
+ * Every borrow and return bumps the counter of the member: the members of a transaction are collected from
+ * {@link LoanBorrowedEvent} and {@link LoanReturnedEvent}, then bumped after commit in a short transaction of
+ * its own, so that borrows and returns never hold a member row lock. The new values are kept in memory, so that
+ * polling clients are answered without a query. Values read from the database are served for
+ * {@code loan.rules.loan-version-cache.staleness-ms}, which bounds how late changes made on other nodes are seen.
+ * </p>
+ * <p>
+ * Between the commit and the bump, the listing may be served with the previous version: clients then see the
+ * change on their next poll. If the bump fails, the version stays behind until the next change of the member.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MemberLoanVersions {
+    private final MemberRepository memberRepository;
+    private final MemberJdbcRepository memberJdbcRepository;
+    private final TransactionTemplate bumpTransaction;
+    private final LoanRulesConfig.LoanVersionCache config;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public MemberLoanVersions(MemberRepository memberRepository,
+                              MemberJdbcRepository memberJdbcRepository,
+                              PlatformTransactionManager transactionManager,
+                              LoanRulesConfig borrowingRules,
+                              MeterRegistry meterRegistry) {
+        this.memberRepository = memberRepository;
+        this.memberJdbcRepository = memberJdbcRepository;
+        this.bumpTransaction = new TransactionTemplate(transactionManager);
+        this.bumpTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.config = borrowingRules.getLoanVersionCache();
+
+        this.hits = meterRegistry.counter("loan.version.cache", "result", "hit");
+        this.misses = meterRegistry.counter("loan.version.cache", "result", "miss");
+        meterRegistry.gaugeMapSize("loan.version.cache.size", Tags.empty(), entries);
+    }
+
+    /**
+     * Returns the loan version of a member.
+     *
+     * @param memberId the member id
+     * @return the loan version, 0 if the member does not exist
+     */
+    public long current(Long memberId) {
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(memberId);
+
+        if (cached != null && now - cached.loadedAt <= config.getStalenessMs()) {
+            hits.increment();
+            return cached.version;
+        }
+
+        misses.increment();
+        long version = memberRepository.findLoanVersionById(memberId).orElse(0L);
+        cache(memberId, version, now);
+        return version;
+    }
+
+    @EventListener
+    public void onBorrowed(LoanBorrowedEvent event) {
+        changed(event.getMemberId());
+    }
+
+    @EventListener
+    public void onReturned(LoanReturnedEvent event) {
+        changed(event.getMemberId());
+    }
+
+    /**
+     * Registers the member in the loan changes of the current transaction, bumped once after commit.
+     */
+    private void changed(Long memberId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(Set.of(memberId));
+            return;
+        }
+
+        PendingBumps pending = (PendingBumps) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingBumps();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+
+        pending.memberIds.add(memberId);
+    }
+
+    /**
+     * Bumps the members in a transaction of their own and caches the new versions.
+     * A failure is logged and not thrown, the loan changes are already committed.
+     */
+    private void bump(Set<Long> memberIds) {
+        try {
+            Map<Long, Long> versions = bumpTransaction.execute(status -> memberJdbcRepository.bumpLoanVersions(memberIds));
+            long now = System.currentTimeMillis();
+            versions.forEach((memberId, version) -> cache(memberId, version, now));
+            log.debug("Loan versions bumped: {}", versions);
+        } catch (RuntimeException ex) {
+            entries.keySet().removeAll(memberIds);
+            log.warn("Loan versions of members {} could not be bumped", memberIds, ex);
+        }
+    }
+
+    private void cache(Long memberId, long version, long loadedAt) {
+        if (entries.size() < config.getMaxEntries() || entries.containsKey(memberId)) {
+            // Never go back to an older version, e.g. a load racing with a bump
+            entries.merge(memberId, new Entry(version, loadedAt), (old, loaded) -> old.version > loaded.version ? old : loaded);
+        }
+    }
+
+    /**
+     * The members whose loans changed in the current transaction.
+     */
+    private final class PendingBumps implements TransactionSynchronization {
+        private final Set<Long> memberIds = new HashSet<>();
+
+        @Override
+        public void afterCommit() {
+            bump(memberIds);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MemberLoanVersions.this);
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final long loadedAt;
+
+        private Entry(long version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
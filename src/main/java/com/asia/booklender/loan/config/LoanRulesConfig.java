@@ -1,5 +1,6 @@
 package com.asia.booklender.loan.config;
 
+import com.asia.booklender.shared.enums.LockStrategy;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -22,4 +23,142 @@ public class LoanRulesConfig {
 
     /* loan.rules.low_inventory_threshold */
     private int lowInventoryThreshold = 2;
+
+    /* loan.rules.borrow_lock_strategy */
+    private LockStrategy borrowLockStrategy = LockStrategy.HYBRID;
+
+    /* loan.rules.copy_reconcile_interval_ms, how often books.available_copies is derived from book_copies with COPY_ALLOCATION */
+    private long copyReconcileIntervalMs = 30000;
+
+    /* loan.rules.lock_timeout_ms, max wait for a pessimistic book lock, 0 waits indefinitely */
+    private long lockTimeoutMs = 0;
+
+    /* loan.rules.lock_retry_after_seconds, Retry-After returned when a book lock is unavailable */
+    private long lockRetryAfterSeconds = 1;
+
+    /* loan.rules.return_lock_strategy, either PESSIMISTIC, NOWAIT or ATOMIC_UPDATE */
+    private LockStrategy returnLockStrategy = LockStrategy.PESSIMISTIC;
+
+    /* loan.rules.coalescing.* */
+    private Coalescing coalescing = new Coalescing();
+
+    /* loan.rules.eligibility_cache.* */
+    private EligibilityCache eligibilityCache = new EligibilityCache();
+
+    /* loan.rules.adaptive.*, used with borrow_lock_strategy ADAPTIVE */
+    private Adaptive adaptive = new Adaptive();
+
+    /* loan.rules.retry.* */
+    private Retry retry = new Retry();
+
+    /* loan.rules.member_guard.* */
+    private MemberGuard memberGuard = new MemberGuard();
+
+    /* loan.rules.loan_version_cache */
+    private LoanVersionCache loanVersionCache = new LoanVersionCache();
+
+    /**
+     * Per-book coalescing of concurrent borrow requests into batches.
+     */
+    @Data
+    public static class Coalescing {
+        /* loan.rules.coalescing.enabled */
+        private boolean enabled = false;
+
+        /* loan.rules.coalescing.max_batch_size */
+        private int maxBatchSize = 50;
+
+        /* loan.rules.coalescing.max_wait_ms, how long the first request of a batch waits for others */
+        private long maxWaitMs = 5;
+
+        /* loan.rules.coalescing.worker_threads */
+        private int workerThreads = 4;
+
+        /* loan.rules.coalescing.await_timeout_ms, how long a request waits for its batch before failing with 503 */
+        private long awaitTimeoutMs = 5000;
+    }
+
+    /**
+     * In-memory cache of member active loan count and earliest due date, used by borrow validation.
+     */
+    @Data
+    public static class EligibilityCache {
+        /* loan.rules.eligibility_cache.enabled, off by default: loans made on other nodes are unseen for up to ttl_seconds */
+        private boolean enabled = false;
+
+        /* loan.rules.eligibility_cache.max_entries */
+        private int maxEntries = 200_000;
+
+        /* loan.rules.eligibility_cache.ttl_seconds, bounds staleness against loans made on other nodes */
+        private long ttlSeconds = 60;
+
+        /* loan.rules.eligibility_cache.purge_interval_ms, how often expired entries are removed */
+        private long purgeIntervalMs = 60_000;
+
+        /* loan.rules.eligibility_cache.verify, compare every cache hit with the database */
+        private boolean verify = false;
+    }
+
+    /**
+     * Per-book contention tracking behind the ADAPTIVE lock strategy.
+     */
+    @Data
+    public static class Adaptive {
+        /* loan.rules.adaptive.half_life_ms, how fast past conflicts and lock waits are forgotten */
+        private long halfLifeMs = 10000;
+
+        /* loan.rules.adaptive.pessimistic_rate, contention events per second from which a book is locked pessimistically */
+        private double pessimisticRate = 0.5;
+
+        /* loan.rules.adaptive.atomic_rate, contention events per second from which a book uses atomic update */
+        private double atomicRate = 5;
+
+        /* loan.rules.adaptive.lock_wait_threshold_ms, a lock taking longer than this counts as a lock wait */
+        private long lockWaitThresholdMs = 20;
+
+        /* loan.rules.adaptive.tracked_books, number of slots of the contention table */
+        private int trackedBooks = 4096;
+    }
+
+    /**
+     * Retry of borrows failing on an optimistic lock conflict.
+     */
+    @Data
+    public static class Retry {
+        /* loan.rules.retry.max_attempts, including the first one */
+        private int maxAttempts = 5;
+
+        /* loan.rules.retry.base_delay_ms */
+        private long baseDelayMs = 10;
+
+        /* loan.rules.retry.max_delay_ms */
+        private long maxDelayMs = 200;
+
+        /* loan.rules.retry.deadline_ms, no attempt starts later than this after the request began */
+        private long deadlineMs = 1000;
+    }
+
+    /**
+     * Serialization of concurrent borrows of the same member, closing the max active loans race.
+     */
+    @Data
+    public static class MemberGuard {
+        /* loan.rules.member_guard.enabled */
+        private boolean enabled = false;
+
+        /* loan.rules.member_guard.stripes, number of in-process locks shared by all members */
+        private int stripes = 256;
+    }
+
+    /**
+     * In-memory copy of the per-member loan change counters, the ETag of the member loan listing.
+     */
+    @Data
+    public static class LoanVersionCache {
+        /* loan.rules.loan_version_cache.staleness_ms, how long a counter read from the database is trusted */
+        private long stalenessMs = 2000;
+
+        /* loan.rules.loan_version_cache.max_entries */
+        private int maxEntries = 200_000;
+    }
 }
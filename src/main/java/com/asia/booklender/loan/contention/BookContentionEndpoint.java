@@ -0,0 +1,32 @@
+package com.asia.booklender.loan.contention;
+
+import com.asia.booklender.loan.dto.BookContentionDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint exposing per-book contention and the lock strategy chosen by
+ * {@link com.asia.booklender.shared.enums.LockStrategy#ADAPTIVE}, at {@code /actuator/bookcontention}.
+ */
+@Component
+@Endpoint(id = "bookcontention")
+@RequiredArgsConstructor
+public class BookContentionEndpoint {
+    private final BookContentionTracker bookContentionTracker;
+
+    @ReadOperation
+    public List<BookContentionDto> books() {
+        return bookContentionTracker.snapshot();
+    }
+
+    @ReadOperation
+    public BookContentionDto book(@Selector Long bookId) {
+        // Null is rendered as 404 by actuator
+        return bookContentionTracker.snapshot(bookId).orElse(null);
+    }
+}
@@ -0,0 +1,166 @@
+package com.asia.booklender.loan.contention;
+
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.loan.dto.BookContentionDto;
+import com.asia.booklender.shared.enums.LockStrategy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tracks per-book contention for the {@link LockStrategy#ADAPTIVE} strategy.
+ * <p>
+ * Optimistic conflicts and lock waits are kept as exponentially decayed rates, in a fixed-size table of slots
+ * indexed by book id. A slot is taken over by the latest book hashing to it, so memory stays bounded and
+ * only hot books keep their history.
+ * </p>
+ * <p>
+ * Strategy by contention rate (conflicts plus lock waits per second):
+ * <ul>
+ * <li>below {@code pessimisticRate}: {@link LockStrategy#OPTIMISTIC}, whatever the stock</li>
+ * <li>below {@code atomicRate}: {@link LockStrategy#PESSIMISTIC}</li>
+ * <li>otherwise: {@link LockStrategy#ATOMIC_UPDATE}</li>
+ * </ul>
+ * </p>
+ */
+@Component
+public class BookContentionTracker {
+    private static final double LN_2 = Math.log(2);
+
+    private final LoanRulesConfig.Adaptive config;
+    private final Slot[] slots;
+
+    public BookContentionTracker(LoanRulesConfig borrowingRules) {
+        this.config = borrowingRules.getAdaptive();
+
+        int size = Integer.highestOneBit(Math.max(config.getTrackedBooks() - 1, 1)) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public void recordConflict(Long bookId) {
+        slot(bookId).record(bookId, 1, 0, System.nanoTime());
+    }
+
+    public void recordLockWait(Long bookId) {
+        slot(bookId).record(bookId, 0, 1, System.nanoTime());
+    }
+
+    /**
+     * Chooses the lock strategy of a book from its current contention rate.
+     */
+    public LockStrategy recommend(Long bookId) {
+        return slot(bookId).recommend(bookId, System.nanoTime());
+    }
+
+    /**
+     * Returns the tracked books, most contended first.
+     */
+    public List<BookContentionDto> snapshot() {
+        long now = System.nanoTime();
+
+        List<BookContentionDto> books = new ArrayList<>();
+        for (Slot slot : slots) {
+            BookContentionDto book = slot.snapshot(null, now);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+
+        books.sort(Comparator.comparingDouble((BookContentionDto book) -> book.getConflictRate() + book.getLockWaitRate()).reversed());
+        return books;
+    }
+
+    public Optional<BookContentionDto> snapshot(Long bookId) {
+        return Optional.ofNullable(slot(bookId).snapshot(bookId, System.nanoTime()));
+    }
+
+    private Slot slot(Long bookId) {
+        long hash = bookId * 0x9E3779B97F4A7C15L;
+        return slots[(int) (hash ^ (hash >>> 32)) & (slots.length - 1)];
+    }
+
+    /**
+     * Decayed event counts of one book. The rate in events per second is {@code count * ln2 / halfLife}.
+     */
+    private final class Slot {
+        private long bookId;
+        private double conflicts;
+        private double lockWaits;
+        private long updatedAtNanos;
+        private long updatedAtMillis;
+        private LockStrategy strategy = LockStrategy.OPTIMISTIC;
+
+        synchronized void record(long bookId, int conflict, int lockWait, long now) {
+            claim(bookId);
+            decay(now);
+            conflicts += conflict;
+            lockWaits += lockWait;
+            updatedAtMillis = System.currentTimeMillis();
+        }
+
+        synchronized LockStrategy recommend(long bookId, long now) {
+            if (this.bookId != bookId) {
+                return LockStrategy.OPTIMISTIC;
+            }
+
+            decay(now);
+            double rate = toRate(conflicts + lockWaits);
+
+            if (rate < config.getPessimisticRate()) {
+                strategy = LockStrategy.OPTIMISTIC;
+            } else if (rate < config.getAtomicRate()) {
+                strategy = LockStrategy.PESSIMISTIC;
+            } else {
+                strategy = LockStrategy.ATOMIC_UPDATE;
+            }
+
+            return strategy;
+        }
+
+        synchronized BookContentionDto snapshot(Long bookId, long now) {
+            if (this.bookId == 0 || (bookId != null && this.bookId != bookId)) {
+                return null;
+            }
+
+            decay(now);
+            return BookContentionDto
+                    .builder()
+                    .bookId(this.bookId)
+                    .conflictRate(toRate(conflicts))
+                    .lockWaitRate(toRate(lockWaits))
+                    .strategy(strategy)
+                    .updatedAt(updatedAtMillis)
+                    .build();
+        }
+
+        private void claim(long bookId) {
+            if (this.bookId != bookId) {
+                this.bookId = bookId;
+                conflicts = 0;
+                lockWaits = 0;
+                strategy = LockStrategy.OPTIMISTIC;
+                updatedAtNanos = System.nanoTime();
+            }
+        }
+
+        private void decay(long now) {
+            double halfLives = (now - updatedAtNanos) / (config.getHalfLifeMs() * 1_000_000d);
+            if (halfLives > 0) {
+                double factor = Math.pow(0.5, halfLives);
+                conflicts *= factor;
+                lockWaits *= factor;
+                updatedAtNanos = now;
+            }
+        }
+
+        private double toRate(double count) {
+            return count * LN_2 / (config.getHalfLifeMs() / 1000d);
+        }
+    }
+}
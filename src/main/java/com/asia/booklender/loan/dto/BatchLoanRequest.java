@@ -0,0 +1,30 @@
+package com.asia.booklender.loan.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchLoanRequest {
+    @NotEmpty(message = "bookIds must not be empty")
+    @Size(max = 20, message = "bookIds must not contain more than 20 books")
+    private List<@NotNull Long> bookIds;
+
+    /**
+     * A batch is all or nothing: a book requested twice is rejected rather than borrowed once.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "bookIds must not contain duplicates")
+    public boolean isDistinctBookIds() {
+        return bookIds == null || bookIds.stream().distinct().count() == bookIds.size();
+    }
+}
@@ -0,0 +1,19 @@
+package com.asia.booklender.loan.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchReturnRequest {
+    @NotEmpty(message = "loanIds must not be empty")
+    @Size(max = 5000, message = "loanIds must not contain more than 5000 loans")
+    private List<@NotNull Long> loanIds;
+}
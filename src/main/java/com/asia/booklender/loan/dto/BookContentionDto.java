@@ -0,0 +1,21 @@
+package com.asia.booklender.loan.dto;
+
+import com.asia.booklender.shared.enums.LockStrategy;
+import lombok.*;
+
+/**
+ * Contention of a book as tracked for the {@link LockStrategy#ADAPTIVE} strategy.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookContentionDto {
+    private Long bookId;
+    /* Decayed optimistic conflicts per second */
+    private double conflictRate;
+    /* Decayed lock waits per second */
+    private double lockWaitRate;
+    private LockStrategy strategy;
+    private Long updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.asia.booklender.loan.dto;
+
+import lombok.*;
+
+/**
+ * Outcome of one loan of a batch return.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanReturnOutcomeDto {
+    private Long loanId;
+    private Outcome outcome;
+
+    public enum Outcome {
+        RETURNED,
+        ALREADY_RETURNED,
+        NOT_FOUND
+    }
+}
@@ -1,6 +1,7 @@
 package com.asia.booklender.loan.entity;
 
 import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.book.entity.BookCopy;
 import com.asia.booklender.member.entity.Member;
 import com.asia.booklender.shared.entity.BasedEntity;
 import jakarta.persistence.*;
@@ -13,11 +14,14 @@ import java.time.Instant;
 @Entity
 @Table(name = "loans",
         indexes = {
-                // Primary index: Find loans by member
-                @Index(name = "idx_member", columnList = "member_id"),
+                // Find loans by member & keyset pages of the loans of a member, sorted by id
+                @Index(name = "idx_member_id", columnList = "member_id, id"),
 
                 // Find active loans by member & find overdue loan by member
-                @Index(name = "idx_member_returnedAt_dueAt", columnList = "member_id, returned_at, due_at")
+                @Index(name = "idx_member_returnedAt_dueAt", columnList = "member_id, returned_at, due_at"),
+
+                // Find the active loan of a copy
+                @Index(name = "idx_copy", columnList = "copy_id")
         })
 @Data
 @SuperBuilder(toBuilder = true)
@@ -46,6 +50,13 @@ public class Loan extends BasedEntity {
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;  // Full book entity when needed
 
+    @Column(name = "copy_id", insertable = false, updatable = false)
+    private Long copyId;  // Direct FK access, only set with copy-level allocation
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+
     @Column(name = "member_id", insertable = false, updatable = false)
     private Long memberId;  // Direct FK access
 
@@ -0,0 +1,21 @@
+package com.asia.booklender.loan.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Published within the borrow transaction for each created loan.
+ * Listeners that keep derived state should react after commit.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class LoanBorrowedEvent {
+    private final Long loanId;
+    private final Long bookId;
+    private final Long memberId;
+    private final Instant dueAt;
+}
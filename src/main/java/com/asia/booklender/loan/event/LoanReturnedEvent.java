@@ -0,0 +1,21 @@
+package com.asia.booklender.loan.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Published within the return transaction for each returned loan.
+ * Listeners that keep derived state should react after commit.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class LoanReturnedEvent {
+    private final Long loanId;
+    private final Long bookId;
+    private final Long memberId;
+    private final Instant dueAt;
+}
@@ -0,0 +1,17 @@
+package com.asia.booklender.loan.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when the lock on a book cannot be acquired immediately or within the lock timeout.
+ * The request can be retried after {@code retryAfterSeconds}.
+ */
+@Getter
+public class BookLockUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public BookLockUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
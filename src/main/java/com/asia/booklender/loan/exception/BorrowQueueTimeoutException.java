@@ -0,0 +1,17 @@
+package com.asia.booklender.loan.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a coalesced borrow request is not processed within {@code loan.rules.coalescing.await-timeout-ms}.
+ * The request can be retried after {@code retryAfterSeconds}.
+ */
+@Getter
+public class BorrowQueueTimeoutException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public BorrowQueueTimeoutException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,12 @@
+package com.asia.booklender.loan.repository;
+
+import java.time.Instant;
+
+/**
+ * Active loans of a member, see {@link LoanRepository#summarizeActiveLoans(Long)}.
+ */
+public interface ActiveLoanSummary {
+    Long getActiveLoans();
+
+    Instant getEarliestDueAt();
+}
@@ -0,0 +1,125 @@
+package com.asia.booklender.loan.repository;
+
+import com.asia.booklender.loan.entity.Loan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plain JDBC access to the loans table, for set-based writes that JPA cannot batch with identity ids.
+ * <p>
+ * Runs within the surrounding JPA transaction.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoanJdbcRepository {
+    private static final String INSERT_LOAN_SQL =
+            "INSERT INTO loans (book_id, member_id, copy_id, borrowed_at, due_at, created_by, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MARK_RETURNED_SQL =
+            "UPDATE loans SET returned_at = now(), updated_at = now() " +
+            "WHERE id = ANY(?) AND returned_at IS NULL " +
+            "RETURNING id, book_id, member_id, copy_id, borrowed_at, due_at, returned_at";
+
+    private static final String FIND_IDS_SQL = "SELECT id FROM loans WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts new loans in one JDBC batch.
+     * <p>Only the column values of the given loans are used: book id, member id, copy id, borrowed at, due at
+     * and created by.
+     *
+     * @param loans the loans to insert
+     * @return the generated loan ids, in the order of the given loans
+     */
+    public List<Long> insertAll(List<Loan> loans) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_LOAN_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Loan loan = loans.get(i);
+                        Timestamp now = Timestamp.from(Instant.now());
+
+                        ps.setLong(1, loan.getBookId());
+                        ps.setLong(2, loan.getMemberId());
+                        ps.setObject(3, loan.getCopyId(), Types.BIGINT);
+                        ps.setTimestamp(4, Timestamp.from(loan.getBorrowedAt()));
+                        ps.setTimestamp(5, Timestamp.from(loan.getDueAt()));
+                        ps.setString(6, loan.getCreatedBy());
+                        ps.setTimestamp(7, now);
+                        ps.setTimestamp(8, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return loans.size();
+                    }
+                },
+                keyHolder);
+
+        return keyHolder
+                .getKeyList()
+                .stream()
+                .map(keys -> ((Number) keys.get("id")).longValue())
+                .toList();
+    }
+
+    /**
+     * Marks the active loans among the given ids as returned, in one statement.
+     *
+     * @param ids the loan ids
+     * @return the loans returned by this call, with their id, book id, member id, copy id and timestamps only
+     */
+    public List<Loan> markAllReturned(List<Long> ids) {
+        return jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(MARK_RETURNED_SQL);
+                    ps.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                    return ps;
+                },
+                (rs, rowNum) -> Loan
+                        .builder()
+                        .id(rs.getLong("id"))
+                        .bookId(rs.getLong("book_id"))
+                        .memberId(rs.getLong("member_id"))
+                        .copyId(rs.getObject("copy_id", Long.class))
+                        .borrowedAt(rs.getTimestamp("borrowed_at").toInstant())
+                        .dueAt(rs.getTimestamp("due_at").toInstant())
+                        .returnedAt(rs.getTimestamp("returned_at").toInstant())
+                        .build());
+    }
+
+    /**
+     * Finds which of the given loan ids exist.
+     *
+     * @param ids the loan ids
+     * @return the existing loan ids
+     */
+    public Set<Long> findExistingIds(List<Long> ids) {
+        return new HashSet<>(jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(FIND_IDS_SQL);
+                    ps.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                    return ps;
+                },
+                (rs, rowNum) -> rs.getLong("id")));
+    }
+}
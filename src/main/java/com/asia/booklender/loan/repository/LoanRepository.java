@@ -1,22 +1,89 @@
 package com.asia.booklender.loan.repository;
 
 import com.asia.booklender.loan.entity.Loan;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.*;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Optional;
 
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
+    /*
+     * Read paths mapped to LoanDto fetch the book and the member in the same statement as the loans,
+     * instead of one lazy load per loan and association. Both are to-one, so pagination stays in the database.
+     */
+    @EntityGraph(attributePaths = {"book", "member"})
     Page<Loan> findByMemberId(Long memberId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"book", "member"})
     Page<Loan> findByMemberIdAndReturnedAtIsNull(Long memberId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"book", "member"})
+    @Query("SELECT l FROM Loan l")
+    Page<Loan> findAllWithBookAndMember(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"book", "member"})
+    @Query("SELECT l FROM Loan l")
+    Slice<Loan> findSliceWithBookAndMember(Pageable pageable);
+
+    /*
+     * Keyset reads: each page seeks after the (sort field, id) of the previous one instead of skipping rows.
+     */
+    @EntityGraph(attributePaths = {"book", "member"})
+    Window<Loan> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    @EntityGraph(attributePaths = {"book", "member"})
+    Window<Loan> findByMemberId(Long memberId, ScrollPosition position, Limit limit, Sort sort);
+
+    @EntityGraph(attributePaths = {"book", "member"})
+    Window<Loan> findByMemberIdAndReturnedAtIsNull(Long memberId, ScrollPosition position, Limit limit, Sort sort);
+
+    long countByMemberId(Long memberId);
+
+    @EntityGraph(attributePaths = {"book", "member"})
+    @Query("SELECT l FROM Loan l WHERE l.id = :id")
+    Optional<Loan> findWithBookAndMemberById(@Param("id") Long id);
+
     Page<Loan> findByBookIdAndReturnedAtIsNull(Long bookId, Pageable pageable);
 
     int countByMemberIdAndReturnedAtIsNull(Long memberId);
 
     boolean existsByMemberIdAndReturnedAtIsNullAndDueAtBefore(Long memberId, Instant before);
+
+    /**
+     * Counts the active loans of a member and finds their earliest due date, in one statement.
+     *
+     * @param memberId the member id
+     * @return the active loan summary, with a null earliest due date when there is no active loan
+     */
+    @Query("SELECT COUNT(l) AS activeLoans, MIN(l.dueAt) AS earliestDueAt " +
+            "FROM Loan l WHERE l.memberId = :memberId AND l.returnedAt IS NULL")
+    ActiveLoanSummary summarizeActiveLoans(@Param("memberId") Long memberId);
+
+    /**
+     * Takes a transaction-scoped Postgres advisory lock on a member id, waiting for it if another transaction holds it.
+     * The lock is released at commit or rollback.
+     *
+     * @param memberId the member id
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:memberId)) AS guard", nativeQuery = true)
+    Integer lockMember(@Param("memberId") Long memberId);
+
+    /**
+     * Marks an active loan as returned in a single guarded statement, without loading or locking the loan.
+     *
+     * @param id the loan id
+     * @return the returned loan columns, empty if the loan does not exist or has already been returned
+     */
+    @Query(value = "UPDATE loans SET returned_at = now(), updated_at = now() " +
+            "WHERE id = :id AND returned_at IS NULL " +
+            "RETURNING id AS \"id\", book_id AS \"bookId\", member_id AS \"memberId\", copy_id AS \"copyId\", " +
+            "borrowed_at AS \"borrowedAt\", due_at AS \"dueAt\", returned_at AS \"returnedAt\"",
+            nativeQuery = true)
+    Optional<ReturnedLoanView> markReturned(@Param("id") Long id);
 }
@@ -0,0 +1,22 @@
+package com.asia.booklender.loan.repository;
+
+import java.time.Instant;
+
+/**
+ * Columns of a loan returned by the guarded return statement, see {@link LoanRepository#markReturned(Long)}.
+ */
+public interface ReturnedLoanView {
+    Long getId();
+
+    Long getBookId();
+
+    Long getMemberId();
+
+    Long getCopyId();
+
+    Instant getBorrowedAt();
+
+    Instant getDueAt();
+
+    Instant getReturnedAt();
+}
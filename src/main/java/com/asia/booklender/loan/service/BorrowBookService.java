@@ -7,6 +7,8 @@ import com.asia.booklender.loan.exception.OverdueLoanException;
 import com.asia.booklender.member.entity.Member;
 import com.asia.booklender.shared.exception.ResourceNotFoundException;
 
+import java.util.List;
+
 /**
  * * Service responsible for borrowing books
  */
@@ -25,4 +27,45 @@ public interface BorrowBookService {
      * @throws BookNotAvailableException if no copies available
      */
     Loan borrow(Long bookId, Member member);
+
+    /**
+     * Borrows several books at once for a member, all or nothing.
+     * <p>
+     * The member eligibility is validated once against the combined count, and book locks are acquired in
+     * ascending book id order so that concurrent batches cannot deadlock.
+     * </p>
+     *
+     * @param bookIds the IDs of the books to borrow, without duplicates
+     * @param member the authenticated member
+     *
+     * @return the created Loan entities, in ascending book id order
+     *
+     * @throws ResourceNotFoundException if a book not found
+     * @throws MaxLoansExceededException if the loans would exceed the member loan limit
+     * @throws OverdueLoanException if member has overdue loans
+     * @throws BookNotAvailableException if a book has no copies available
+     * @throws IllegalArgumentException if a book id is given more than once
+     */
+    List<Loan> borrowAll(List<Long> bookIds, Member member);
+
+    /**
+     * Validates that a member is eligible to borrow one more book.
+     *
+     * @param memberId the member id
+     *
+     * @throws MaxLoansExceededException if member has reached loan limit
+     * @throws OverdueLoanException if member has overdue loans
+     */
+    void validateEligibility(Long memberId);
+
+    /**
+     * Validates that a member is eligible to borrow the given number of books.
+     *
+     * @param memberId the member id
+     * @param requested the number of books about to be borrowed
+     *
+     * @throws MaxLoansExceededException if the loans would exceed the member loan limit
+     * @throws OverdueLoanException if member has overdue loans
+     */
+    void validateEligibility(Long memberId, int requested);
 }
@@ -1,8 +1,15 @@
 package com.asia.booklender.loan.service;
 
 import com.asia.booklender.loan.dto.LoanDto;
+import com.asia.booklender.loan.dto.LoanReturnOutcomeDto;
+import com.asia.booklender.shared.api.CursorPage;
+import com.asia.booklender.shared.api.ScrollRequest;
+import com.asia.booklender.shared.enums.CountMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
 
 /**
  * Service layer for managing book loans.
@@ -17,6 +24,14 @@ public interface LoanService {
      */
     LoanDto loan(Long bookId);
 
+    /**
+     * Borrows several books at once for the authenticated member, all or nothing.
+     *
+     * @param bookIds book ids
+     * @return {@code List<LoanDto>} the created loans, in ascending book id order
+     */
+    List<LoanDto> loanAll(List<Long> bookIds);
+
     /**
      * Returns a book loan by the loan id.
      *
@@ -25,6 +40,14 @@ public interface LoanService {
      */
     LoanDto returnBook(Long loanId);
 
+    /**
+     * Returns many book loans at once. Admin only.
+     *
+     * @param loanIds the loan ids
+     * @return {@code List<LoanReturnOutcomeDto>} the outcome of each loan
+     */
+    List<LoanReturnOutcomeDto> returnAll(List<Long> loanIds);
+
     /**
      * Retrieve my active loans
      *
@@ -34,6 +57,22 @@ public interface LoanService {
      */
     Page<LoanDto> findMy(boolean isActive, Pageable pageable);
 
+    /**
+     * Retrieve my loans after the cursor of the request.
+     *
+     * @param isActive if true, returns only active loans; if false, returns all loans
+     * @param request the scroll request
+     * @return the page of loans, with the cursor of the next page
+     */
+    CursorPage<LoanDto> scrollMy(boolean isActive, ScrollRequest request);
+
+    /**
+     * Retrieve the loan version of the authenticated member, bumped on each of its borrows and returns.
+     *
+     * @return the member id and its loan version, the validator of my loans
+     */
+    String findMyLoansTag();
+
     /**
      * Retrieve my book loan based on the loan id.
      * <p>
@@ -50,7 +89,16 @@ public interface LoanService {
      * Retrieve all book loans within the given page.
      *
      * @param page the page parameter
-     * @return the {@code Page<LoanDto>}
+     * @param countMode how to count the total
+     * @return the {@code Page<LoanDto>}, a {@code Slice} if the count mode is {@link CountMode#NONE}
+     */
+    Slice<LoanDto> findAll(Pageable page, CountMode countMode);
+
+    /**
+     * Retrieve the book loans after the cursor of the request. Admin only.
+     *
+     * @param request the scroll request
+     * @return the page of loans, with the cursor of the next page
      */
-    Page<LoanDto> findAll(Pageable page);
+    CursorPage<LoanDto> scrollAll(ScrollRequest request);
 }
@@ -1,10 +1,13 @@
 package com.asia.booklender.loan.service;
 
+import com.asia.booklender.loan.dto.LoanReturnOutcomeDto;
 import com.asia.booklender.loan.entity.Loan;
 import com.asia.booklender.member.entity.Member;
 import com.asia.booklender.shared.exception.AccessDeniedException;
 import com.asia.booklender.shared.exception.ResourceNotFoundException;
 
+import java.util.List;
+
 /**
  *  Service responsible for returning borrowed books.
  */
@@ -22,4 +25,17 @@ public interface ReturnBookService {
      * @throws IllegalStateException if book has already been returned
      */
     Loan returnBook(Long loanId, Member member);
+
+    /**
+     * Returns many loans at once with set-based statements, e.g. when processing the book-drop bin.
+     * <p>
+     * Loans are marked returned in one statement, and the inventory increments are aggregated per book
+     * and applied in one statement. No authorization check is made, callers must be admins.
+     * </p>
+     *
+     * @param loanIds the IDs of the loans to return, duplicates are ignored
+     *
+     * @return the outcome of each loan, in the order of the given ids
+     */
+    List<LoanReturnOutcomeDto> returnAll(List<Long> loanIds);
 }
@@ -0,0 +1,61 @@
+package com.asia.booklender.loan.service.impl;
+
+import com.asia.booklender.book.event.BookChangedEvent;
+import com.asia.booklender.book.repository.BookCopyRepository;
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.shared.enums.LockStrategy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the physical copies and the book inventory in line while copy-level allocation is enabled.
+ * <p>
+ * Copies are provisioned from {@code books.total_copies} on every run, the first one at startup, then
+ * {@code books.available_copies} is derived from the available copies. Outside
+ * {@link LockStrategy#COPY_ALLOCATION}, this component does nothing.
+ * </p>
+ * <p>
+ * The provisioning checks are not backed by a constraint, so runs are serialized across nodes by an advisory
+ * lock: a run that finds it taken is skipped, the holder reconciles the same rows.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookCopyReconciler {
+    private final BookCopyRepository bookCopyRepository;
+    private final LoanRulesConfig borrowingRules;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Scheduled(fixedDelayString = "${loan.rules.copy-reconcile-interval-ms:30000}")
+    @Transactional
+    public void reconcile() {
+        reconcileIfEnabled();
+    }
+
+    private void reconcileIfEnabled() {
+        if (borrowingRules.getBorrowLockStrategy() != LockStrategy.COPY_ALLOCATION) {
+            return;
+        }
+
+        if (!bookCopyRepository.tryLockReconciliation()) {
+            log.debug("Book copies reconciliation already running, skipped");
+            return;
+        }
+
+        int provisioned = bookCopyRepository.provisionNewBooks() + bookCopyRepository.provisionAddedCopies();
+        int reconciled = bookCopyRepository.reconcileAvailableCopies();
+
+        if (reconciled > 0) {
+            eventPublisher.publishEvent(BookChangedEvent.allBooks());
+        }
+
+        if (provisioned > 0 || reconciled > 0) {
+            log.info("Book copies reconciled. Provisioned copies: {}, books updated: {}", provisioned, reconciled);
+        }
+    }
+}
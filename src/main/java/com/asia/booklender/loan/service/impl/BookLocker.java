@@ -0,0 +1,81 @@
+package com.asia.booklender.loan.service.impl;
+
+import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.book.repository.BookRepository;
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.loan.exception.BookLockUnavailableException;
+import com.asia.booklender.shared.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acquires the pessimistic write lock of a book row without letting the request thread wait indefinitely.
+ * <p>
+ * Either fails immediately when the row is locked ({@code NOWAIT}), or waits at most
+ * {@code loan.rules.lock-timeout-ms} (transaction-local Postgres {@code lock_timeout}), or waits indefinitely
+ * when no timeout is configured. A lock that cannot be acquired surfaces as {@link BookLockUnavailableException}.
+ * </p>
+ * <p>
+ * Lock wait durations are published as the {@code loan.book.lock.wait} histogram, tagged by operation and outcome.
+ * </p>
+ */
+@Component
+@Slf4j
+public class BookLocker {
+    private final BookRepository bookRepository;
+    private final LoanRulesConfig borrowingRules;
+    private final MeterRegistry meterRegistry;
+
+    public BookLocker(BookRepository bookRepository, LoanRulesConfig borrowingRules, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.borrowingRules = borrowingRules;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Locks a book row for update within the current transaction.
+     *
+     * @param bookId the book id
+     * @param operation the operation name, used as metric tag
+     * @param noWait whether to fail immediately if the row is locked
+     * @return the locked book
+     *
+     * @throws ResourceNotFoundException if book not found
+     * @throws BookLockUnavailableException if the lock could not be acquired
+     */
+    public Book lock(Long bookId, String operation, boolean noWait) {
+        long timeoutMs = borrowingRules.getLockTimeoutMs();
+        if (!noWait && timeoutMs > 0) {
+            bookRepository.setLockTimeout(timeoutMs + "ms");
+        }
+
+        long start = System.nanoTime();
+        try {
+            Book book = (noWait ? bookRepository.findWithLockNoWaitById(bookId) : bookRepository.findWithLockById(bookId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+            record(operation, "acquired", start);
+            return book;
+        } catch (PessimisticLockingFailureException ex) {
+            record(operation, "unavailable", start);
+            log.warn("Lock of book {} unavailable for {} ({})", bookId, operation, noWait ? "nowait" : timeoutMs + " ms timeout");
+            throw new BookLockUnavailableException("Book is being updated by another request, please retry",
+                    borrowingRules.getLockRetryAfterSeconds(), ex);
+        }
+    }
+
+    private void record(String operation, String outcome, long start) {
+        Timer
+                .builder("loan.book.lock.wait")
+                .description("Time spent acquiring the pessimistic lock of a book")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
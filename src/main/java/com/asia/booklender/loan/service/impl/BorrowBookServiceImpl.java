@@ -1,12 +1,19 @@
 package com.asia.booklender.loan.service.impl;
 
 import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.book.entity.BookCopy;
+import com.asia.booklender.book.repository.BookCopyRepository;
 import com.asia.booklender.book.repository.BookRepository;
+import com.asia.booklender.loan.cache.MemberEligibility;
+import com.asia.booklender.loan.cache.MemberEligibilityCache;
 import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.loan.contention.BookContentionTracker;
 import com.asia.booklender.loan.entity.Loan;
+import com.asia.booklender.loan.event.LoanBorrowedEvent;
 import com.asia.booklender.loan.exception.BookNotAvailableException;
 import com.asia.booklender.loan.exception.MaxLoansExceededException;
 import com.asia.booklender.loan.exception.OverdueLoanException;
+import com.asia.booklender.loan.repository.LoanJdbcRepository;
 import com.asia.booklender.loan.repository.LoanRepository;
 import com.asia.booklender.loan.service.BorrowBookService;
 import com.asia.booklender.member.entity.Member;
@@ -14,22 +21,31 @@ import com.asia.booklender.shared.enums.LockStrategy;
 import com.asia.booklender.shared.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BorrowBookServiceImpl implements BorrowBookService {
     private final LoanRepository loanRepository;
+    private final LoanJdbcRepository loanJdbcRepository;
     private final BookRepository bookRepository;
+    private final BookCopyRepository bookCopyRepository;
     private final LoanRulesConfig borrowingRules;
+    private final MemberEligibilityCache memberEligibilityCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookContentionTracker bookContentionTracker;
+    private final MemberBorrowGuard memberBorrowGuard;
+    private final BookLocker bookLocker;
 
     @Override
     @Transactional
@@ -37,13 +53,19 @@ public class BorrowBookServiceImpl implements BorrowBookService {
         log.debug("Processing borrow request for book: {} by member: {}", bookId, member);
 
         // Validate against loan rules
-        validateAgainstRules(member.getId());
+        validateEligibility(member.getId());
 
-        // Decrement book inventory
-        Book book = decrementBookInventory(bookId);
+        // Take a physical copy off the shelf, or decrement book inventory
+        Loan loan;
+        if (borrowingRules.getBorrowLockStrategy() == LockStrategy.COPY_ALLOCATION) {
+            BookCopy copy = allocateCopy(bookId);
+            loan = createLoanRecord(bookRepository.getReferenceById(bookId), copy, member);
+        } else {
+            Book book = decrementBookInventory(bookId);
+            loan = createLoanRecord(book, null, member);
+        }
 
-        // Create and save the loan
-        Loan loan = createLoanRecord(book, member);
+        eventPublisher.publishEvent(new LoanBorrowedEvent(loan.getId(), bookId, member.getId(), loan.getDueAt()));
 
         log.info("Book borrowed successfully. Loan ID: {}, Due date: {}", loan.getId(), loan.getDueAt());
         log.debug("Loan attempt successful. Loan: {}", loan);
@@ -51,6 +73,69 @@ public class BorrowBookServiceImpl implements BorrowBookService {
         return loan;
     }
 
+    @Override
+    @Transactional
+    public List<Loan> borrowAll(List<Long> bookIds, Member member) {
+        // Ascending order, so that book locks are always acquired in the same order
+        List<Long> sortedBookIds = new ArrayList<>(new TreeSet<>(bookIds));
+        if (sortedBookIds.size() != bookIds.size()) {
+            // Collapsing them would report success for fewer loans than requested
+            throw new IllegalArgumentException("Book ids must not contain duplicates: " + bookIds);
+        }
+        log.debug("Processing batch borrow request for books: {} by member: {}", sortedBookIds, member);
+
+        // Validate against loan rules, once for all books
+        validateEligibility(member.getId(), sortedBookIds.size());
+
+        // Any unavailable book fails the whole batch, rolling back the books already taken
+        boolean copyAllocation = borrowingRules.getBorrowLockStrategy() == LockStrategy.COPY_ALLOCATION;
+        boolean noWait = borrowingRules.getBorrowLockStrategy() == LockStrategy.NOWAIT;
+        Instant now = Instant.now();
+
+        List<Loan> loans = new ArrayList<>(sortedBookIds.size());
+        for (Long bookId : sortedBookIds) {
+            BookCopy copy = null;
+            Book book;
+            if (copyAllocation) {
+                copy = allocateCopy(bookId);
+                book = bookRepository.getReferenceById(bookId);
+            } else {
+                book = bookLocker.lock(bookId, "borrow-batch", noWait);
+                if (book.getAvailableCopies() <= 0) {
+                    log.warn("Book {} is not available for borrowing - batch of {} books rejected", bookId, sortedBookIds.size());
+                    throw new BookNotAvailableException("Book is not available for borrowing: " + bookId);
+                }
+                book.setAvailableCopies(book.getAvailableCopies() - 1);
+                bookRepository.save(book);
+            }
+
+            loans.add(Loan
+                    .builder()
+                    .bookId(bookId)
+                    .book(book)
+                    .copyId(copy != null ? copy.getId() : null)
+                    .copy(copy)
+                    .memberId(member.getId())
+                    .member(member)
+                    .borrowedAt(now)
+                    .dueAt(now.plus(borrowingRules.getLoanDurationDays(), ChronoUnit.DAYS))
+                    .createdBy(member.getEmail())
+                    .build());
+        }
+
+        // Book updates are flushed before the JDBC insert, within the same transaction
+        bookRepository.flush();
+        List<Long> loanIds = loanJdbcRepository.insertAll(loans);
+        for (int i = 0; i < loans.size(); i++) {
+            Loan loan = loans.get(i);
+            loan.setId(loanIds.get(i));
+            eventPublisher.publishEvent(new LoanBorrowedEvent(loan.getId(), loan.getBookId(), member.getId(), loan.getDueAt()));
+        }
+
+        log.info("Batch borrow successful. Member: {}, loan IDs: {}", member.getId(), loanIds);
+        return loans;
+    }
+
     /**
      * Validates that a member is eligible to borrow books.
      * <p>
@@ -59,22 +144,42 @@ public class BorrowBookServiceImpl implements BorrowBookService {
      * <li>Has not exceeded maximum active loans</li>
      * <li>Has no overdue loans (if enforcement enabled)</li>
      * </ol>
+     * Both checks are answered by the {@link MemberEligibilityCache}, from memory when cached.
+     * <p>
+     * With the member guard enabled, the borrows of the member are serialized by {@link MemberBorrowGuard}
+     * until the end of the transaction, and the checks are made against the database under the guard.
+     * </p>
      */
-    private void validateAgainstRules(Long memberId) {
+    @Override
+    public void validateEligibility(Long memberId) {
+        validateEligibility(memberId, 1);
+    }
+
+    @Override
+    public void validateEligibility(Long memberId, int requested) {
+        MemberEligibility eligibility;
+        if (borrowingRules.getMemberGuard().isEnabled()) {
+            memberBorrowGuard.acquire(memberId);
+            eligibility = memberEligibilityCache.refresh(memberId);
+        } else {
+            eligibility = memberEligibilityCache.get(memberId);
+        }
+
         // Check if the member's loan exceeds the max number of loan limit
-        validateMaxLoan(memberId);
+        validateMaxLoan(memberId, eligibility, requested);
 
         // Check if the member has overdue loan
-        validateOverdue(memberId);
+        validateOverdue(memberId, eligibility);
     }
 
-    private void validateMaxLoan(Long memberId) {
-        int activeLoans = loanRepository.countByMemberIdAndReturnedAtIsNull(memberId);
+    private void validateMaxLoan(Long memberId, MemberEligibility eligibility, int requested) {
+        int activeLoans = eligibility.getActiveLoans();
 
-        if (activeLoans >= borrowingRules.getMaxActiveLoans()) {
-            log.warn("Member {} has reached maximum active loans limit ({}/{})",
+        if (activeLoans + requested > borrowingRules.getMaxActiveLoans()) {
+            log.warn("Member {} would exceed maximum active loans limit ({} + {}/{})",
                     memberId,
                     activeLoans,
+                    requested,
                     borrowingRules.getMaxActiveLoans());
             throw new MaxLoansExceededException(
                     String.format("Member has reached maximum active loans limit (%d)",
@@ -83,9 +188,8 @@ public class BorrowBookServiceImpl implements BorrowBookService {
         }
     }
 
-    private void validateOverdue(Long memberId) {
-        if (borrowingRules.isEnforceOverdueRestriction()
-                && loanRepository.existsByMemberIdAndReturnedAtIsNullAndDueAtBefore(memberId, Instant.now())) {
+    private void validateOverdue(Long memberId, MemberEligibility eligibility) {
+        if (borrowingRules.isEnforceOverdueRestriction() && eligibility.hasOverdue(Instant.now())) {
             log.warn("Member {} has overdue loans and cannot borrow new books", memberId);
             throw new OverdueLoanException("Member has overdue loans and cannot borrow new books");
         }
@@ -97,13 +201,25 @@ public class BorrowBookServiceImpl implements BorrowBookService {
      * Strategy:
      * <ol>
      * <li>Quick check without lock (fast fail if unavailable)</li>
-     * <li>Determine locking strategy based on inventory threshold</li>
+     * <li>Determine locking strategy based on configuration and inventory threshold</li>
      * <li>Apply appropriate lock and decrement inventory</li>
      * </ol>
+     * With {@link LockStrategy#ATOMIC_UPDATE} configured, the inventory is decremented by a single guarded statement
+     * instead. With {@link LockStrategy#ADAPTIVE}, the strategy is chosen from the tracked contention of the book.
      */
     private Book decrementBookInventory(Long bookId) {
+        LockStrategy configured = borrowingRules.getBorrowLockStrategy();
+        if (configured == LockStrategy.ADAPTIVE) {
+            configured = bookContentionTracker.recommend(bookId);
+            log.debug("Book {} using adaptive {} lock", bookId, configured);
+        }
+
+        if (configured == LockStrategy.ATOMIC_UPDATE) {
+            return decrementWithAtomicUpdate(bookId);
+        }
+
         Book book = getAndCheckAvailability(bookId);
-        LockStrategy lockStrategy = determineLock(book);
+        LockStrategy lockStrategy = determineLock(book, configured);
 
         return decrement(book, lockStrategy);
     }
@@ -120,7 +236,12 @@ public class BorrowBookServiceImpl implements BorrowBookService {
         return book;
     }
 
-    private LockStrategy determineLock(Book book) {
+    private LockStrategy determineLock(Book book, LockStrategy configured) {
+        if (configured != LockStrategy.HYBRID) {
+            log.debug("Book {} using configured {} lock", book.getId(), configured);
+            return configured;
+        }
+
         int threshold = borrowingRules.getLowInventoryThreshold();
         boolean usePessimistic = book.getAvailableCopies() <= threshold;
 
@@ -133,21 +254,66 @@ public class BorrowBookServiceImpl implements BorrowBookService {
     }
 
     private Book decrement(Book book, LockStrategy strategy) {
-        if (strategy == LockStrategy.PESSIMISTIC) {
-            return decrementWithPessimisticLock(book);
+        if (strategy == LockStrategy.PESSIMISTIC || strategy == LockStrategy.NOWAIT) {
+            return decrementWithPessimisticLock(book, strategy == LockStrategy.NOWAIT);
         } else {
             return decrementWithOptimisticLock(book);
         }
     }
 
+    /**
+     * Allocates an available physical copy of the book.
+     * <p>Each copy is its own row locked with {@code SKIP LOCKED}, so concurrent borrowers of the same book
+     * never wait on each other. The book row is not touched, its available copies are reconciled periodically.
+     */
+    private BookCopy allocateCopy(Long bookId) {
+        Long copyId = bookCopyRepository.allocateAvailableCopy(bookId).orElse(null);
+
+        if (copyId == null) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new ResourceNotFoundException("Book not found with id: " + bookId);
+            }
+
+            log.warn("Book {} has no available copy for borrowing", bookId);
+            throw new BookNotAvailableException("Book is not available for borrowing");
+        }
+
+        log.debug("Allocated copy {} of book {}", copyId, bookId);
+        return bookCopyRepository.getReferenceById(copyId);
+    }
+
+    /**
+     * Decrements inventory using a single guarded UPDATE statement.
+     * <p>No row is read or locked beforehand, the affected-row count tells whether a copy was taken.
+     * <p>The book is only looked up again on failure, to tell a missing book from an unavailable one.
+     */
+    private Book decrementWithAtomicUpdate(Long bookId) {
+        long start = System.nanoTime();
+        int updated = bookRepository.decrementAvailableCopies(bookId);
+        recordLockWait(bookId, start);
+
+        if (updated == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new ResourceNotFoundException("Book not found with id: " + bookId);
+            }
+
+            log.warn("Book {} is not available for borrowing (atomic update affected no row)", bookId);
+            throw new BookNotAvailableException("Book is not available for borrowing");
+        }
+
+        // Reference only, the row is loaded lazily when the loan is mapped to its DTO
+        return bookRepository.getReferenceById(bookId);
+    }
+
     /**
      * Decrements inventory using pessimistic lock (database-level lock).
      * <p>Used for low inventory books to guarantee consistency.
-     * <p>May need retry on {@code OptimisticLockingFailureException}.
+     * <p>The lock is not waited for with {@code noWait}, and at most the configured lock timeout otherwise.
      */
-    private Book decrementWithPessimisticLock(Book book) {
-        Book lockedBook = bookRepository.findWithLockById(book.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + book.getId()));
+    private Book decrementWithPessimisticLock(Book book, boolean noWait) {
+        long start = System.nanoTime();
+        Book lockedBook = bookLocker.lock(book.getId(), "borrow", noWait);
+        recordLockWait(book.getId(), start);
 
         if (lockedBook.getAvailableCopies() <= 0) {
             log.warn("Book {} became unavailable after acquiring lock", lockedBook.getId());
@@ -160,15 +326,17 @@ public class BorrowBookServiceImpl implements BorrowBookService {
     /**
      * Decrements inventory using optimistic lock.
      * Used for high inventory books for better performance.
+     * <p>A conflict fails the transaction, the whole borrow is retried by {@link ConflictRetryExecutor}.
      */
-    @Retryable(
-            retryFor = {OptimisticLockingFailureException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 100)
-    )
     private Book decrementWithOptimisticLock(Book book) {
-        // Decrement and immediately save it. Retry optimistically upon concurrent conflict.
-        return decrementAndSave(book);
+        // Decrement and flush immediately, so that a version conflict surfaces here rather than at commit
+        book.setAvailableCopies(book.getAvailableCopies() - 1);
+        try {
+            return bookRepository.saveAndFlush(book);
+        } catch (OptimisticLockingFailureException ex) {
+            bookContentionTracker.recordConflict(book.getId());
+            throw ex;
+        }
     }
 
     private Book decrementAndSave(Book book) {
@@ -176,13 +344,21 @@ public class BorrowBookServiceImpl implements BorrowBookService {
         return bookRepository.save(book);
     }
 
+    private void recordLockWait(Long bookId, long start) {
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+        if (waitedMs > borrowingRules.getAdaptive().getLockWaitThresholdMs()) {
+            bookContentionTracker.recordLockWait(bookId);
+        }
+    }
+
     /**
      * Creates and saves the loan record with automatic due date calculation.
      */
-    private Loan createLoanRecord(Book book, Member member) {
+    private Loan createLoanRecord(Book book, BookCopy copy, Member member) {
         Loan loan = Loan
                 .builder()
                 .book(book)
+                .copy(copy)
                 .member(member)
                 .borrowedAt(Instant.now())
                 .dueAt(Instant.now().plus(borrowingRules.getLoanDurationDays(), ChronoUnit.DAYS))
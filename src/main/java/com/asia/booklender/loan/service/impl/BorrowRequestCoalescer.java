@@ -0,0 +1,424 @@
+package com.asia.booklender.loan.service.impl;
+
+import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.book.repository.BookCopyRepository;
+import com.asia.booklender.book.repository.BookRepository;
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.loan.entity.Loan;
+import com.asia.booklender.loan.event.LoanBorrowedEvent;
+import com.asia.booklender.loan.exception.BookNotAvailableException;
+import com.asia.booklender.loan.exception.BorrowQueueTimeoutException;
+import com.asia.booklender.loan.exception.MaxLoansExceededException;
+import com.asia.booklender.loan.exception.OverdueLoanException;
+import com.asia.booklender.loan.repository.LoanJdbcRepository;
+import com.asia.booklender.loan.service.BorrowBookService;
+import com.asia.booklender.shared.enums.LockStrategy;
+import com.asia.booklender.shared.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent borrow requests for the same book into batches.
+ * <p>
+ * Requests are queued per book. A single worker per book drains up to {@code maxBatchSize} requests,
+ * locks the book row once, decrements the inventory once by the number of granted requests
+ * and inserts all loans in one JDBC batch. Each request is then completed individually, as granted
+ * or rejected with the same exceptions as {@link BorrowBookService#borrow}.
+ * </p>
+ * <p>
+ * The first request of a batch waits at most {@code maxWaitMs} for others to join. A request not picked by
+ * a batch within {@code awaitTimeoutMs} is abandoned and fails with {@link BorrowQueueTimeoutException}.
+ * </p>
+ * <p>
+ * With {@link LockStrategy#COPY_ALLOCATION}, each granted request allocates a copy instead, and
+ * {@code books.available_copies} is left to the reconciler.
+ * </p>
+ * <p>
+ * A queue is removed once drained, so that the map only holds the books being borrowed.
+ * </p>
+ */
+@Component
+@Slf4j
+public class BorrowRequestCoalescer {
+    private final BookRepository bookRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final BookLocker bookLocker;
+    private final LoanJdbcRepository loanJdbcRepository;
+    private final BorrowBookService borrowBookService;
+    private final MemberBorrowGuard memberBorrowGuard;
+    private final LoanRulesConfig borrowingRules;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+    private final Counter timeouts;
+
+    private final ConcurrentMap<Long, BookQueue> queues = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService workers;
+
+    public BorrowRequestCoalescer(BookRepository bookRepository,
+                                  BookCopyRepository bookCopyRepository,
+                                  BookLocker bookLocker,
+                                  LoanJdbcRepository loanJdbcRepository,
+                                  BorrowBookService borrowBookService,
+                                  MemberBorrowGuard memberBorrowGuard,
+                                  LoanRulesConfig borrowingRules,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.bookCopyRepository = bookCopyRepository;
+        this.bookLocker = bookLocker;
+        this.loanJdbcRepository = loanJdbcRepository;
+        this.borrowBookService = borrowBookService;
+        this.memberBorrowGuard = memberBorrowGuard;
+        this.borrowingRules = borrowingRules;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+
+        this.batchSize = DistributionSummary
+                .builder("loan.borrow.coalescer.batch.size")
+                .description("Number of borrow requests drained per batch")
+                .register(meterRegistry);
+        this.queueWait = Timer
+                .builder("loan.borrow.coalescer.queue.wait")
+                .description("Time a borrow request waits in the queue before its batch is processed")
+                .register(meterRegistry);
+        this.timeouts = Counter
+                .builder("loan.borrow.coalescer.timeouts")
+                .description("Borrow requests abandoned before a batch picked them")
+                .register(meterRegistry);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newScheduledThreadPool(borrowingRules.getCoalescing().getWorkerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "borrow-coalescer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Borrows a book through the batch of its book and waits for the outcome.
+     *
+     * @param bookId the ID of the book to borrow
+     * @param memberId the borrowing member id
+     * @param memberEmail the borrowing member email, recorded as the loan creator
+     * @return the id of the created loan
+     *
+     * @throws ResourceNotFoundException if book not found
+     * @throws MaxLoansExceededException if member has reached loan limit
+     * @throws OverdueLoanException if member has overdue loans
+     * @throws BookNotAvailableException if no copies available
+     * @throws BorrowQueueTimeoutException if no batch picked the request in time
+     */
+    public Long borrow(Long bookId, Long memberId, String memberEmail) {
+        PendingBorrow pending = new PendingBorrow(memberId, memberEmail);
+
+        BookQueue queue = queues.computeIfAbsent(bookId, BookQueue::new);
+        queue.pending.add(pending);
+        scheduleDrain(queue);
+
+        return await(pending);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void scheduleDrain(BookQueue queue) {
+        if (queue.scheduled.compareAndSet(false, true)) {
+            workers.schedule(() -> drain(queue), borrowingRules.getCoalescing().getMaxWaitMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Processes the queued requests of a book, batch by batch while full batches are waiting.
+     * Only one drain per book is scheduled at a time.
+     */
+    private void drain(BookQueue queue) {
+        int maxBatchSize = borrowingRules.getCoalescing().getMaxBatchSize();
+
+        try {
+            do {
+                List<PendingBorrow> batch = poll(queue, maxBatchSize);
+                if (!batch.isEmpty()) {
+                    processBatch(queue, batch);
+                }
+            } while (queue.size() >= maxBatchSize);
+        } finally {
+            queue.scheduled.set(false);
+
+            // Requests queued while the last batch was processed. A request added to a removed queue
+            // still schedules its drain, the queue is only detached from the map.
+            if (queue.size() > 0) {
+                scheduleDrain(queue);
+            } else {
+                queues.remove(queue.bookId, queue);
+            }
+        }
+    }
+
+    /**
+     * Takes the next requests, deferred ones first, skipping the requests abandoned by their caller.
+     */
+    private List<PendingBorrow> poll(BookQueue queue, int maxBatchSize) {
+        List<PendingBorrow> batch = new ArrayList<>(maxBatchSize);
+
+        PendingBorrow pending;
+        while (batch.size() < maxBatchSize && (pending = queue.next()) != null) {
+            if (pending.claimed.compareAndSet(false, true)) {
+                batch.add(pending);
+            }
+        }
+
+        return batch;
+    }
+
+    private void processBatch(BookQueue queue, List<PendingBorrow> polled) {
+        Long bookId = queue.bookId;
+
+        // A member is granted at most one loan per batch, so that its eligibility accounts for the previous one.
+        // Its other requests lead the next batch, in their arrival order.
+        Set<Long> members = new HashSet<>();
+        List<PendingBorrow> batch = new ArrayList<>(polled.size());
+        List<PendingBorrow> deferred = new ArrayList<>();
+        for (PendingBorrow pending : polled) {
+            if (members.add(pending.memberId)) {
+                batch.add(pending);
+            } else {
+                pending.claimed.set(false);
+                deferred.add(pending);
+            }
+        }
+        queue.defer(deferred);
+
+        long now = System.nanoTime();
+        batch.forEach(pending -> queueWait.record(now - pending.enqueuedAt, TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+
+        try {
+            List<PendingBorrow> granted = transactionTemplate.execute(status -> grant(bookId, batch));
+
+            // Granted requests are completed only once the batch is committed
+            granted.forEach(pending -> pending.result.complete(pending.loanId));
+
+            log.info("Borrow batch processed for book {}. Requests: {}, granted: {}", bookId, batch.size(), granted.size());
+        } catch (RuntimeException ex) {
+            log.warn("Borrow batch failed for book {}. Requests: {}", bookId, batch.size(), ex);
+            batch.forEach(pending -> pending.result.completeExceptionally(ex));
+        }
+    }
+
+    /**
+     * Grants the batch within a single transaction:
+     * <ol>
+     * <li>Reject members that are not eligible, checked in {@link MemberBorrowGuard#acquisitionOrder()}</li>
+     * <li>Lock the book once and grant as many requests as there are available copies, in arrival order</li>
+     * <li>Decrement the inventory once and insert all loans in one JDBC batch</li>
+     * </ol>
+     * With copy-level allocation, a copy is allocated per granted request instead of locking the book.
+     *
+     * @return the granted requests, with their loan id
+     */
+    private List<PendingBorrow> grant(Long bookId, List<PendingBorrow> batch) {
+        List<PendingBorrow> byMember = new ArrayList<>(batch);
+        byMember.sort(Comparator.comparing(pending -> pending.memberId, memberBorrowGuard.acquisitionOrder()));
+
+        Set<PendingBorrow> rejected = new HashSet<>();
+        for (PendingBorrow pending : byMember) {
+            try {
+                borrowBookService.validateEligibility(pending.memberId);
+            } catch (MaxLoansExceededException | OverdueLoanException ex) {
+                pending.result.completeExceptionally(ex);
+                rejected.add(pending);
+            }
+        }
+
+        List<PendingBorrow> eligible = new ArrayList<>(batch);
+        eligible.removeAll(rejected);
+
+        if (eligible.isEmpty()) {
+            return List.of();
+        }
+
+        int grantedCount = borrowingRules.getBorrowLockStrategy() == LockStrategy.COPY_ALLOCATION
+                ? allocateCopies(bookId, eligible)
+                : decrementInventory(bookId, eligible.size());
+        List<PendingBorrow> granted = eligible.subList(0, grantedCount);
+
+        eligible
+                .subList(grantedCount, eligible.size())
+                .forEach(pending -> pending.result.completeExceptionally(
+                        new BookNotAvailableException("Book is not available for borrowing")));
+
+        if (granted.isEmpty()) {
+            log.warn("Book {} is not available for borrowing (0 copies available) - batch rejected", bookId);
+            return List.of();
+        }
+
+        List<Loan> loans = granted.stream().map(pending -> newLoan(bookId, pending)).toList();
+        List<Long> loanIds = loanJdbcRepository.insertAll(loans);
+        for (int i = 0; i < granted.size(); i++) {
+            granted.get(i).loanId = loanIds.get(i);
+            eventPublisher.publishEvent(new LoanBorrowedEvent(loanIds.get(i), bookId, loans.get(i).getMemberId(), loans.get(i).getDueAt()));
+        }
+
+        return granted;
+    }
+
+    /**
+     * Locks the book once and takes as many copies as available, up to the requested count.
+     *
+     * @return the number of copies taken
+     */
+    private int decrementInventory(Long bookId, int requested) {
+        Book book = bookLocker.lock(bookId, "borrow-batch", false);
+
+        int taken = Math.min(book.getAvailableCopies(), requested);
+        if (taken > 0) {
+            book.setAvailableCopies(book.getAvailableCopies() - taken);
+            bookRepository.save(book);
+        }
+
+        return taken;
+    }
+
+    /**
+     * Allocates one copy per request, in arrival order, until the book has no available copy.
+     *
+     * @return the number of requests with a copy, the first ones
+     */
+    private int allocateCopies(Long bookId, List<PendingBorrow> requests) {
+        int allocated = 0;
+        for (PendingBorrow pending : requests) {
+            Long copyId = bookCopyRepository.allocateAvailableCopy(bookId).orElse(null);
+            if (copyId == null) {
+                break;
+            }
+            pending.copyId = copyId;
+            allocated++;
+        }
+
+        if (allocated == 0 && !bookRepository.existsById(bookId)) {
+            throw new ResourceNotFoundException("Book not found with id: " + bookId);
+        }
+
+        return allocated;
+    }
+
+    private Loan newLoan(Long bookId, PendingBorrow pending) {
+        Instant now = Instant.now();
+
+        return Loan
+                .builder()
+                .bookId(bookId)
+                .memberId(pending.memberId)
+                .copyId(pending.copyId)
+                .borrowedAt(now)
+                .dueAt(now.plus(borrowingRules.getLoanDurationDays(), ChronoUnit.DAYS))
+                .createdBy(pending.memberEmail)
+                .build();
+    }
+
+    private Long await(PendingBorrow pending) {
+        long timeoutMs = borrowingRules.getCoalescing().getAwaitTimeoutMs();
+        try {
+            try {
+                return pending.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                // Not picked by a batch yet: abandon it, batches skip it
+                if (pending.claimed.compareAndSet(false, true)) {
+                    throw timeout();
+                }
+
+                // Its batch is in flight and may grant the loan, wait for the outcome
+                return pending.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException ex) {
+            log.warn("Borrow batch did not complete within {} ms, its outcome is unknown to the caller", timeoutMs);
+            throw timeout();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Borrow batch failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the borrow batch", ex);
+        }
+    }
+
+    private BorrowQueueTimeoutException timeout() {
+        timeouts.increment();
+        return new BorrowQueueTimeoutException("Borrow request was not processed in time, please retry",
+                borrowingRules.getLockRetryAfterSeconds());
+    }
+
+    /**
+     * Queue of pending borrow requests of one book.
+     * <p>
+     * {@code deferred} holds the requests put back by a batch, ahead of the queue. It is only accessed by the drain
+     * of the queue, one at a time.
+     * </p>
+     */
+    private static final class BookQueue {
+        private final Long bookId;
+        private final Queue<PendingBorrow> pending = new ConcurrentLinkedQueue<>();
+        private final Deque<PendingBorrow> deferred = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private BookQueue(Long bookId) {
+            this.bookId = bookId;
+        }
+
+        private PendingBorrow next() {
+            PendingBorrow next = deferred.pollFirst();
+            return next != null ? next : pending.poll();
+        }
+
+        private void defer(List<PendingBorrow> requests) {
+            for (int i = requests.size() - 1; i >= 0; i--) {
+                deferred.addFirst(requests.get(i));
+            }
+        }
+
+        private int size() {
+            return deferred.size() + pending.size();
+        }
+    }
+
+    /**
+     * A borrow request waiting for its batch.
+     */
+    private static final class PendingBorrow {
+        private final Long memberId;
+        private final String memberEmail;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        /* Set by the batch that picks the request, or by the caller that abandons it */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Long copyId;
+        private Long loanId;
+
+        private PendingBorrow(Long memberId, String memberEmail) {
+            this.memberId = memberId;
+            this.memberEmail = memberEmail;
+        }
+    }
+}
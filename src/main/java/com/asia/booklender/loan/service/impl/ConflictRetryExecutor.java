@@ -0,0 +1,79 @@
+package com.asia.booklender.loan.service.impl;
+
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries an operation failing with {@link OptimisticLockingFailureException}.
+ * <p>
+ * Each attempt must be a complete transaction, so that state is read again on the next attempt.
+ * Attempts are spaced with decorrelated jitter ({@code min(maxDelay, random(baseDelay, previous * 3))})
+ * and stop at {@code maxAttempts} or when the next attempt would start past the per-request deadline.
+ * The last conflict is then rethrown.
+ * </p>
+ * <p>
+ * Metrics, tagged by operation: {@code loan.conflict.retry.attempts} (retries made),
+ * {@code loan.conflict.retry.recovered} (successes after at least one retry) and
+ * {@code loan.conflict.retry.exhausted}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ConflictRetryExecutor {
+    private final LoanRulesConfig.Retry config;
+    private final MeterRegistry meterRegistry;
+
+    public ConflictRetryExecutor(LoanRulesConfig borrowingRules, MeterRegistry meterRegistry) {
+        this.config = borrowingRules.getRetry();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String operation, Supplier<T> attempt) {
+        long deadline = System.nanoTime() + config.getDeadlineMs() * 1_000_000L;
+        long delayMs = config.getBaseDelayMs();
+
+        for (int attempts = 1; ; attempts++) {
+            try {
+                T result = attempt.get();
+                if (attempts > 1) {
+                    meterRegistry.counter("loan.conflict.retry.recovered", "operation", operation).increment();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException ex) {
+                delayMs = nextDelay(delayMs);
+
+                boolean pastDeadline = System.nanoTime() + delayMs * 1_000_000L > deadline;
+                if (attempts >= config.getMaxAttempts() || pastDeadline) {
+                    meterRegistry.counter("loan.conflict.retry.exhausted", "operation", operation).increment();
+                    log.warn("{} gave up after {} attempts on concurrent update", operation, attempts);
+                    throw ex;
+                }
+
+                log.debug("{} attempt {} hit a concurrent update, retrying in {} ms", operation, attempts, delayMs);
+                meterRegistry.counter("loan.conflict.retry.attempts", "operation", operation).increment();
+                sleep(delayMs, ex);
+            }
+        }
+    }
+
+    private long nextDelay(long previousMs) {
+        long base = config.getBaseDelayMs();
+        long upper = Math.max(base + 1, previousMs * 3);
+        return Math.min(config.getMaxDelayMs(), ThreadLocalRandom.current().nextLong(base, upper));
+    }
+
+    private void sleep(long delayMs, OptimisticLockingFailureException conflict) {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
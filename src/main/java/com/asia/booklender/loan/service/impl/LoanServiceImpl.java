@@ -1,6 +1,9 @@
 package com.asia.booklender.loan.service.impl;
 
+import com.asia.booklender.loan.cache.MemberLoanVersions;
+import com.asia.booklender.loan.config.LoanRulesConfig;
 import com.asia.booklender.loan.dto.LoanDto;
+import com.asia.booklender.loan.dto.LoanReturnOutcomeDto;
 import com.asia.booklender.loan.entity.Loan;
 import com.asia.booklender.loan.mapper.LoanMapper;
 import com.asia.booklender.loan.repository.LoanRepository;
@@ -9,16 +12,25 @@ import com.asia.booklender.loan.service.LoanService;
 import com.asia.booklender.loan.service.ReturnBookService;
 import com.asia.booklender.member.entity.Member;
 import com.asia.booklender.member.repository.MemberRepository;
+import com.asia.booklender.shared.api.CursorPage;
+import com.asia.booklender.shared.api.ETags;
+import com.asia.booklender.shared.api.ScrollRequest;
+import com.asia.booklender.shared.enums.CountMode;
 import com.asia.booklender.shared.exception.AccessDeniedException;
 import com.asia.booklender.shared.exception.ResourceNotFoundException;
+import com.asia.booklender.shared.repository.TableStatisticsRepository;
 import com.asia.booklender.shared.security.CurrentUser;
 import com.asia.booklender.shared.security.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
 
 /**
  * Default implementation of {@link LoanService}.
@@ -32,20 +44,69 @@ public class LoanServiceImpl implements LoanService {
     private final MemberRepository memberRepository;
     private final BorrowBookService borrowBookService;
     private final ReturnBookService returnBookService;
+    private final BorrowRequestCoalescer borrowRequestCoalescer;
+    private final LoanRulesConfig borrowingRules;
+    private final TransactionTemplate transactionTemplate;
+    private final ConflictRetryExecutor conflictRetryExecutor;
+    private final TableStatisticsRepository tableStatisticsRepository;
+    private final MemberLoanVersions memberLoanVersions;
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Transactions are demarcated here rather than declared on the method: a coalesced borrow must not hold
+     * a transaction, and its connection, while it waits for its batch. A borrow failing on an optimistic
+     * lock conflict is retried in a new transaction by {@link ConflictRetryExecutor}.
+     * </p>
+     */
     @Override
-    @Transactional
     public LoanDto loan(Long bookId) {
         log.info("Processing borrow request for bookId: {}", bookId);
 
-        // Get the authenticated member (automatically from JWT token)
+        if (borrowingRules.getCoalescing().isEnabled()) {
+            return loanCoalesced(bookId);
+        }
+
+        return conflictRetryExecutor.execute("borrow", () -> transactionTemplate.execute(status -> {
+            // Get the authenticated member (automatically from JWT token)
+            Member member = getAuthenticatedMember();
+
+            // Execute borrow process
+            Loan loan = borrowBookService.borrow(bookId, member);
+
+            // Map to the DTO and return
+            return loanMapper.toDto(loan);
+        }));
+    }
+
+    @Override
+    public List<LoanDto> loanAll(List<Long> bookIds) {
+        log.info("Processing batch borrow request for bookIds: {}", bookIds);
+
+        return conflictRetryExecutor.execute("borrow-batch", () -> transactionTemplate.execute(status -> {
+            // Get the authenticated member once for all books
+            Member member = getAuthenticatedMember();
+
+            return borrowBookService
+                    .borrowAll(bookIds, member)
+                    .stream()
+                    .map(loanMapper::toDto)
+                    .toList();
+        }));
+    }
+
+    /**
+     * Borrows through the per-book batch, then reads the created loan back.
+     */
+    private LoanDto loanCoalesced(Long bookId) {
         Member member = getAuthenticatedMember();
 
-        // Execute borrow process
-        Loan loan = borrowBookService.borrow(bookId, member);
+        Long loanId = borrowRequestCoalescer.borrow(bookId, member.getId(), member.getEmail());
 
-        // Map to the DTO and return
-        return loanMapper.toDto(loan);
+        return transactionTemplate.execute(status -> loanRepository
+                .findWithBookAndMemberById(loanId)
+                .map(loanMapper::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Loan not found with id: " + loanId)));
     }
 
     @Override
@@ -63,6 +124,21 @@ public class LoanServiceImpl implements LoanService {
         return loanMapper.toDto(loan);
     }
 
+    @Override
+    @Transactional
+    public List<LoanReturnOutcomeDto> returnAll(List<Long> loanIds) {
+        CurrentUser currentUser = SecurityUtil.currentUser();
+
+        // Reject non-admin users
+        if (!currentUser.isAdmin()) {
+            log.warn("Non-admin attempt to return loans in batch. User: {}", currentUser);
+            throw new AccessDeniedException("Denied request for non-admin");
+        }
+
+        log.info("Processing batch return request for {} loans by {}", loanIds.size(), currentUser.getUsername());
+        return returnBookService.returnAll(loanIds);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<LoanDto> findMy(boolean isActive, Pageable pageable) {
@@ -81,12 +157,42 @@ public class LoanServiceImpl implements LoanService {
                 .map(loanMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<LoanDto> scrollMy(boolean isActive, ScrollRequest request) {
+        Member member = getAuthenticatedMember();
+
+        if (isActive) {
+            return CursorPage.of(
+                    loanRepository
+                            .findByMemberIdAndReturnedAtIsNull(member.getId(), request.getPosition(), request.getLimit(), request.getSort())
+                            .map(loanMapper::toDto),
+                    request,
+                    request.isIncludeTotal() ? (long) loanRepository.countByMemberIdAndReturnedAtIsNull(member.getId()) : null);
+        }
+
+        return CursorPage.of(
+                loanRepository
+                        .findByMemberId(member.getId(), request.getPosition(), request.getLimit(), request.getSort())
+                        .map(loanMapper::toDto),
+                request,
+                request.isIncludeTotal() ? loanRepository.countByMemberId(member.getId()) : null);
+    }
+
+    @Override
+    public String findMyLoansTag() {
+        Member member = getAuthenticatedMember();
+
+        // Weak: the loans embed the book inventory, which changes without the member loan version
+        return ETags.weak(member.getId(), memberLoanVersions.current(member.getId()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public LoanDto findById(Long loanId) {
         CurrentUser currentUser = SecurityUtil.currentUser();
 
-        Loan loan = loanRepository.findById(loanId)
+        Loan loan = loanRepository.findWithBookAndMemberById(loanId)
                 .orElseThrow(() -> new ResourceNotFoundException("Loan not found with id: " + loanId));
 
         // Authorization check: Members can only view their own loans
@@ -96,7 +202,11 @@ public class LoanServiceImpl implements LoanService {
     }
 
     private void validateAuthority(CurrentUser currentUser, Loan loan) {
-        if (!currentUser.isAdmin() && !loan.getMemberEmail().equals(currentUser.getUsername())) {
+        boolean isOwner = currentUser.getMemberId() != null
+                ? loan.getMemberId().equals(currentUser.getMemberId())
+                : loan.getMemberEmail().equals(currentUser.getUsername());
+
+        if (!currentUser.isAdmin() && !isOwner) {
             log.warn("Member (Non-admin) {} attempted to access loan {} belonging to member {}",
                     currentUser, loan.getId(), loan.getMember().getId());
             throw new AccessDeniedException("You can only view your own loans");
@@ -105,7 +215,7 @@ public class LoanServiceImpl implements LoanService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<LoanDto> findAll(Pageable page) {
+    public Slice<LoanDto> findAll(Pageable page, CountMode countMode) {
         CurrentUser currentUser = SecurityUtil.currentUser();
 
         // Reject non-admin users
@@ -114,14 +224,40 @@ public class LoanServiceImpl implements LoanService {
             throw new AccessDeniedException("Denied request for non-admin");
         }
 
-        return loanRepository
-                .findAll(page)
+        return tableStatisticsRepository
+                .read(countMode, page, "loans",
+                        loanRepository::findAllWithBookAndMember,
+                        loanRepository::findSliceWithBookAndMember,
+                        loanRepository::count)
                 .map(loanMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<LoanDto> scrollAll(ScrollRequest request) {
+        CurrentUser currentUser = SecurityUtil.currentUser();
+
+        // Reject non-admin users
+        if(!currentUser.isAdmin()) {
+            log.warn("Non-admin attempt to get all book loan. User: {}", currentUser);
+            throw new AccessDeniedException("Denied request for non-admin");
+        }
+
+        return CursorPage.of(
+                loanRepository
+                        .findAllBy(request.getPosition(), request.getLimit(), request.getSort())
+                        .map(loanMapper::toDto),
+                request,
+                request.isIncludeTotal() ? loanRepository.count() : null);
+    }
+
     /**
      * Gets the authenticated member from the security context.
-     * Extracts the member based on the email stored in the JWT token.
+     * <p>
+     * The member is built from the id, name and email carried by the JWT token, without any lookup. It is a detached
+     * instance, only meant to be referenced by loans and mapped to DTOs. Tokens issued without the member id claim
+     * fall back to loading the member by email.
+     * </p>
      *
      * @return the authenticated member entity
      * @throws AccessDeniedException if user is not authenticated or not a member
@@ -135,6 +271,15 @@ public class LoanServiceImpl implements LoanService {
             throw new AccessDeniedException("User is not authenticated");
         }
 
+        if (currentUser.getMemberId() != null) {
+            return Member
+                    .builder()
+                    .id(currentUser.getMemberId())
+                    .name(currentUser.getMemberName())
+                    .email(currentUser.getUsername())
+                    .build();
+        }
+
         // For members, username is their email address
         Member member = memberRepository.findByEmail(currentUser.getUsername())
                 .orElseThrow(() -> new AccessDeniedException("Authenticated user is not associated with a member account"));
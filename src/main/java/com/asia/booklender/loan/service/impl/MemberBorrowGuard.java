@@ -0,0 +1,83 @@
+package com.asia.booklender.loan.service.impl;
+
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.loan.repository.LoanRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the borrows of a member, so that the max active loans check and the loan insert cannot interleave
+ * with another borrow of the same member.
+ * <p>
+ * Two levels, both held until the end of the current transaction:
+ * <ol>
+ * <li>A striped in-process lock, so that borrows of the same member on this node queue up in memory</li>
+ * <li>A transaction-scoped Postgres advisory lock on the member id, so that the guard also holds across nodes</li>
+ * </ol>
+ * Members hashing to the same stripe share a lock. A transaction guarding several members must acquire them
+ * in {@link #acquisitionOrder()} to avoid deadlocks between stripes.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MemberBorrowGuard {
+    private final LoanRepository loanRepository;
+    private final ReentrantLock[] stripes;
+
+    public MemberBorrowGuard(LoanRepository loanRepository, LoanRulesConfig borrowingRules) {
+        this.loanRepository = loanRepository;
+
+        int size = Integer.highestOneBit(Math.max(borrowingRules.getMemberGuard().getStripes() - 1, 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Acquires the guard of a member until the current transaction completes.
+     *
+     * @param memberId the member id
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void acquire(Long memberId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Member borrow guard requires an active transaction");
+        }
+
+        ReentrantLock lock = stripe(memberId);
+        lock.lock();
+
+        // Registered right away so that the lock is released even if the advisory lock fails
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+
+        loanRepository.lockMember(memberId);
+        log.debug("Acquired borrow guard of member {}", memberId);
+    }
+
+    /**
+     * Order in which the guards of several members must be acquired: by stripe, then by member id.
+     */
+    public Comparator<Long> acquisitionOrder() {
+        return Comparator.comparingInt(this::stripeIndex).thenComparing(Comparator.naturalOrder());
+    }
+
+    private ReentrantLock stripe(Long memberId) {
+        return stripes[stripeIndex(memberId)];
+    }
+
+    private int stripeIndex(Long memberId) {
+        long hash = memberId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (stripes.length - 1);
+    }
+}
@@ -1,21 +1,33 @@
 package com.asia.booklender.loan.service.impl;
 
 import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.book.repository.BookCopyRepository;
+import com.asia.booklender.book.repository.BookJdbcRepository;
 import com.asia.booklender.book.repository.BookRepository;
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.loan.dto.LoanReturnOutcomeDto;
 import com.asia.booklender.loan.entity.Loan;
+import com.asia.booklender.loan.event.LoanReturnedEvent;
 import com.asia.booklender.loan.exception.LoanAlreadyReturnedException;
+import com.asia.booklender.loan.repository.LoanJdbcRepository;
 import com.asia.booklender.loan.repository.LoanRepository;
+import com.asia.booklender.loan.repository.ReturnedLoanView;
 import com.asia.booklender.loan.service.ReturnBookService;
 import com.asia.booklender.member.entity.Member;
+import com.asia.booklender.member.repository.MemberRepository;
+import com.asia.booklender.shared.enums.LockStrategy;
 import com.asia.booklender.shared.exception.AccessDeniedException;
 import com.asia.booklender.shared.exception.ResourceNotFoundException;
 import com.asia.booklender.shared.security.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,20 +35,32 @@ import java.time.Instant;
 public class ReturnBookServiceImpl implements ReturnBookService {
     private final LoanRepository loanRepository;
     private final BookRepository bookRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final MemberRepository memberRepository;
+    private final LoanRulesConfig borrowingRules;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookLocker bookLocker;
+    private final LoanJdbcRepository loanJdbcRepository;
+    private final BookJdbcRepository bookJdbcRepository;
 
     @Override
     @Transactional
     public Loan returnBook(Long loanId, Member member) {
         log.debug("Processing return for loanId: {} by member: {}", loanId, member);
 
+        if (borrowingRules.getReturnLockStrategy() == LockStrategy.ATOMIC_UPDATE) {
+            return returnWithAtomicUpdate(loanId, member);
+        }
+
         // Validate if the return request can be granted.
         Loan loan = validate(loanId, member.getId());
 
-        // Increment the book inventory pessimistically
-        incrementBookInventory(loan.getBook().getId());
+        // Put the copy back on the shelf, incrementing the book inventory pessimistically
+        restock(loan.getBook().getId(), loan.getCopyId(), false);
 
         // Set the 'returnedAt' and save
         Loan returnedLoan = markLoanAsReturned(loan);
+        publishReturned(returnedLoan);
 
         // Log the return result
         logReturnStatus(returnedLoan);
@@ -44,6 +68,59 @@ public class ReturnBookServiceImpl implements ReturnBookService {
         return returnedLoan;
     }
 
+    /**
+     * Returns the book with two guarded statements and no row lock:
+     * <ol>
+     * <li>Mark the loan returned only if it is still active, reading back its columns</li>
+     * <li>Atomically increment the book inventory</li>
+     * </ol>
+     * Authorization is checked on the returned columns. A rejected request throws and rolls back the update.
+     */
+    private Loan returnWithAtomicUpdate(Long loanId, Member member) {
+        Optional<ReturnedLoanView> marked = loanRepository.markReturned(loanId);
+
+        if (marked.isEmpty()) {
+            // Nothing updated, the loan is missing or already returned. Use the regular checks to report which one.
+            validate(loanId, member.getId());
+            throw new LoanAlreadyReturnedException(String.format("Loan id %s has already been returned", loanId));
+        }
+
+        ReturnedLoanView returned = marked.get();
+        validateAuthorization(returned.getId(), returned.getMemberId(), member.getId());
+
+        restock(returned.getBookId(), returned.getCopyId(), true);
+
+        Loan returnedLoan = toLoan(returned, member);
+        publishReturned(returnedLoan);
+        logReturnStatus(returnedLoan);
+
+        return returnedLoan;
+    }
+
+    /**
+     * Builds the returned loan from the columns read back by the return statement.
+     * Book and member are references only, loaded lazily when the loan is mapped.
+     */
+    private Loan toLoan(ReturnedLoanView returned, Member member) {
+        Member loanMember = returned.getMemberId().equals(member.getId())
+                ? member
+                : memberRepository.getReferenceById(returned.getMemberId());
+
+        return Loan
+                .builder()
+                .id(returned.getId())
+                .bookId(returned.getBookId())
+                .book(bookRepository.getReferenceById(returned.getBookId()))
+                .memberId(returned.getMemberId())
+                .member(loanMember)
+                .copyId(returned.getCopyId())
+                .copy(returned.getCopyId() != null ? bookCopyRepository.getReferenceById(returned.getCopyId()) : null)
+                .borrowedAt(returned.getBorrowedAt())
+                .dueAt(returned.getDueAt())
+                .returnedAt(returned.getReturnedAt())
+                .build();
+    }
+
     /**
      * Validates if the return request can be granted.
      *
@@ -80,11 +157,13 @@ public class ReturnBookServiceImpl implements ReturnBookService {
      * @param memberId the member id of the current user
      */
     private void validateAuthorization(Loan loan, Long memberId) {
-        Long loanMemberId = loan.getMember().getId();
+        validateAuthorization(loan.getId(), loan.getMember().getId(), memberId);
+    }
 
+    private void validateAuthorization(Long loanId, Long loanMemberId, Long memberId) {
         if (!SecurityUtil.currentUser().isAdmin()
                 && !loanMemberId.equals(memberId)) {
-            log.warn("Member {} attempted to return loan {} belonging to member {}", memberId, loan.getId(), loanMemberId);
+            log.warn("Member {} attempted to return loan {} belonging to member {}", memberId, loanId, loanMemberId);
             throw new AccessDeniedException("You can only return your own loans");
         }
     }
@@ -103,14 +182,47 @@ public class ReturnBookServiceImpl implements ReturnBookService {
         }
     }
 
+    /**
+     * Puts the returned book back on the shelf.
+     * <p>
+     * With copy-level allocation, the physical copy is released and the book inventory is left to the periodic
+     * reconciliation. Otherwise, the book inventory is incremented, atomically or under a pessimistic lock.
+     * </p>
+     *
+     * @param bookId the book id
+     * @param copyId the copy id of the loan, null if the loan was not allocated a copy
+     * @param atomic whether to increment the inventory with a single atomic statement
+     */
+    private void restock(Long bookId, Long copyId, boolean atomic) {
+        boolean copyAllocation = borrowingRules.getBorrowLockStrategy() == LockStrategy.COPY_ALLOCATION;
+
+        if (copyId != null) {
+            bookCopyRepository.releaseCopy(copyId);
+        } else if (copyAllocation) {
+            // Loan made before copy-level allocation was enabled
+            bookCopyRepository.releaseUntrackedCopy(bookId);
+        }
+
+        if (copyAllocation) {
+            return;
+        }
+
+        if (atomic) {
+            bookRepository.incrementAvailableCopies(bookId);
+        } else {
+            incrementBookInventory(bookId);
+        }
+    }
+
     /**
      * Increments book inventory using pessimistic lock to guarantee consistency.
+     * <p>The lock is not waited for with the {@link LockStrategy#NOWAIT} return strategy.
      *
      * @param bookId the book id.
      */
     private void incrementBookInventory(Long bookId) {
-        Book book = bookRepository.findWithLockById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+        boolean noWait = borrowingRules.getReturnLockStrategy() == LockStrategy.NOWAIT;
+        Book book = bookLocker.lock(bookId, "return", noWait);
 
         book.setAvailableCopies(book.getAvailableCopies() + 1);
         bookRepository.save(book);
@@ -126,6 +238,71 @@ public class ReturnBookServiceImpl implements ReturnBookService {
         return loanRepository.save(loan);
     }
 
+    private void publishReturned(Loan loan) {
+        eventPublisher.publishEvent(new LoanReturnedEvent(loan.getId(), loan.getBook().getId(), loan.getMemberId(), loan.getDueAt()));
+    }
+
+    @Override
+    @Transactional
+    public List<LoanReturnOutcomeDto> returnAll(List<Long> loanIds) {
+        List<Long> ids = loanIds.stream().distinct().toList();
+
+        // Mark all active loans returned in one statement
+        List<Loan> returned = loanJdbcRepository.markAllReturned(ids);
+        Set<Long> returnedIds = returned.stream().map(Loan::getId).collect(Collectors.toSet());
+
+        // Tell already returned loans from unknown ones, only when some loan was not returned
+        Set<Long> existingIds = returnedIds.size() == ids.size() ? returnedIds : loanJdbcRepository.findExistingIds(ids);
+
+        restockAll(returned);
+        returned.forEach(loan -> eventPublisher.publishEvent(
+                new LoanReturnedEvent(loan.getId(), loan.getBookId(), loan.getMemberId(), loan.getDueAt())));
+
+        log.info("Batch return processed. Requested: {}, returned: {}, unknown: {}",
+                ids.size(), returned.size(), ids.size() - existingIds.size());
+
+        return ids
+                .stream()
+                .map(id -> LoanReturnOutcomeDto
+                        .builder()
+                        .loanId(id)
+                        .outcome(returnedIds.contains(id) ? LoanReturnOutcomeDto.Outcome.RETURNED
+                                : existingIds.contains(id) ? LoanReturnOutcomeDto.Outcome.ALREADY_RETURNED
+                                : LoanReturnOutcomeDto.Outcome.NOT_FOUND)
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Puts the copies of many returned loans back on the shelf, the set-based counterpart of {@link #restock}.
+     * <p>
+     * Inventory increments are aggregated per book and applied in one statement, after locking the books in ascending book id order.
+     * </p>
+     */
+    private void restockAll(List<Loan> returned) {
+        boolean copyAllocation = borrowingRules.getBorrowLockStrategy() == LockStrategy.COPY_ALLOCATION;
+
+        bookJdbcRepository.releaseCopies(returned
+                .stream()
+                .map(Loan::getCopyId)
+                .filter(Objects::nonNull)
+                .toList());
+
+        if (copyAllocation) {
+            // Loans made before copy-level allocation was enabled
+            returned
+                    .stream()
+                    .filter(loan -> loan.getCopyId() == null)
+                    .forEach(loan -> bookCopyRepository.releaseUntrackedCopy(loan.getBookId()));
+            return;
+        }
+
+        SortedMap<Long, Integer> copiesByBook = returned
+                .stream()
+                .collect(Collectors.groupingBy(Loan::getBookId, TreeMap::new, Collectors.summingInt(loan -> 1)));
+        bookJdbcRepository.incrementAvailableCopies(copiesByBook);
+    }
+
     /**
      * Logs whether the book was returned on time or late.
      *
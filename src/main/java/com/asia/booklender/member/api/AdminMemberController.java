@@ -7,7 +7,7 @@ import com.asia.booklender.shared.api.PaginationRequest;
 import com.asia.booklender.shared.exception.AccessDeniedException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -34,7 +34,11 @@ public class AdminMemberController {
      */
     @GetMapping
     public ResponseEntity<ApiPaginationResponse<List<MemberDto>>> getAll(@Valid @ModelAttribute PaginationRequest request) {
-        Page<MemberDto> allMember = memberService.findAll(request.toPageable());
+        if (request.isCursorMode()) {
+            return ResponseEntity.ok(ApiPaginationResponse.success(memberService.scrollAll(request.toScrollRequest())));
+        }
+
+        Slice<MemberDto> allMember = memberService.findAll(request.toPageable(), request.getCount());
 
         return ResponseEntity.ok(ApiPaginationResponse.success(allMember));
     }
@@ -1,6 +1,7 @@
 package com.asia.booklender.member.entity;
 
 import com.asia.booklender.shared.entity.BasedEntity;
+import com.asia.booklender.shared.security.Role;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -10,6 +11,7 @@ import lombok.experimental.SuperBuilder;
         indexes = {
                 @Index(name = "idx_email", columnList = "email", unique = true)
         })
+@EntityListeners(MemberEntityListener.class)
 @Data
 @SuperBuilder(toBuilder = true)
 @EqualsAndHashCode(callSuper = true)
@@ -25,4 +27,23 @@ public class Member extends BasedEntity {
 
     @Column(unique = true, nullable = false)
     private String email;
+
+    /* BCrypt hash, members without one cannot log in */
+    @ToString.Exclude
+    @Column(name = "password_hash", length = 72)
+    private String passwordHash;
+
+    /* Comma separated authorities, e.g. ROLE_MEMBER */
+    @Builder.Default
+    @Column(name = "roles", nullable = false, columnDefinition = "VARCHAR(255) DEFAULT 'ROLE_MEMBER'")
+    private String roles = Role.MEMBER.getAuthority();
+
+    @Builder.Default
+    @Column(name = "enabled", nullable = false, columnDefinition = "BOOLEAN DEFAULT TRUE")
+    private boolean enabled = true;
+
+    /* Bumped on every borrow and return of the member, see MemberLoanVersions */
+    @Builder.Default
+    @Column(name = "loan_version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long loanVersion = 0L;
 }
@@ -0,0 +1,27 @@
+package com.asia.booklender.member.entity;
+
+import com.asia.booklender.member.event.MemberChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a {@link MemberChangedEvent} for every member created, updated or deleted through JPA,
+ * so that caches of member credentials, including cached unknown emails, are invalidated.
+ * Bulk JPQL/SQL updates bypass it.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberEntityListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Member member) {
+        eventPublisher.publishEvent(new MemberChangedEvent(member.getId(), member.getEmail()));
+    }
+}
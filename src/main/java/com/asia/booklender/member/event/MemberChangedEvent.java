@@ -0,0 +1,16 @@
+package com.asia.booklender.member.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a member is created, updated or deleted, e.g. registered or its credentials or roles changed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MemberChangedEvent {
+    private final Long memberId;
+    private final String email;
+}
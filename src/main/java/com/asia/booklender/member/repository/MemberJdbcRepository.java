@@ -0,0 +1,65 @@
+package com.asia.booklender.member.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to the members table, for set-based writes over many rows in one statement.
+ * <p>
+ * Runs within the surrounding JPA transaction.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberJdbcRepository {
+    private static final String LOCK_MEMBERS_SQL =
+            "SELECT id FROM members WHERE id = ANY(?) ORDER BY id FOR UPDATE";
+
+    private static final String BUMP_LOAN_VERSIONS_SQL =
+            "UPDATE members SET loan_version = loan_version + 1 WHERE id = ANY(?) RETURNING id, loan_version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Bumps the loan version of several members in one statement.
+     * <p>Postgres locks the rows of an {@code UPDATE ... WHERE id = ANY(?)} in scan order, not in array order,
+     * so the members are locked first in ascending id order to avoid deadlocks between overlapping bumps.
+     *
+     * @param memberIds the member ids
+     * @return the new loan version per member id
+     */
+    public Map<Long, Long> bumpLoanVersions(Collection<Long> memberIds) {
+        Map<Long, Long> versions = new HashMap<>();
+
+        if (memberIds.isEmpty()) {
+            return versions;
+        }
+
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(LOCK_MEMBERS_SQL);
+                    ps.setArray(1, connection.createArrayOf("bigint", memberIds.toArray()));
+                    return ps;
+                },
+                rs -> {
+                });
+
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(BUMP_LOAN_VERSIONS_SQL);
+                    ps.setArray(1, connection.createArrayOf("bigint", memberIds.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    versions.put(rs.getLong("id"), rs.getLong("loan_version"));
+                });
+
+        return versions;
+    }
+}
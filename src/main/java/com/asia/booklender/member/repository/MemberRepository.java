@@ -1,7 +1,10 @@
 package com.asia.booklender.member.repository;
 
 import com.asia.booklender.member.entity.Member;
+import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +12,11 @@ import java.util.Optional;
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long> {
     Optional<Member> findByEmail(String email);
+
+    Window<Member> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    Slice<Member> findSliceBy(Pageable pageable);
+
+    @Query("SELECT m.loanVersion FROM Member m WHERE m.id = :id")
+    Optional<Long> findLoanVersionById(@Param("id") Long id);
 }
@@ -1,8 +1,11 @@
 package com.asia.booklender.member.service;
 
 import com.asia.booklender.member.dto.MemberDto;
-import org.springframework.data.domain.Page;
+import com.asia.booklender.shared.api.CursorPage;
+import com.asia.booklender.shared.api.ScrollRequest;
+import com.asia.booklender.shared.enums.CountMode;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface MemberService {
     /**
@@ -10,9 +13,19 @@ public interface MemberService {
      * Only applicable for Admin.
      *
      * @param page the page parameter
-     * @return the {@code Page<MemberDto>}
+     * @param countMode how to count the total
+     * @return the {@code Page<MemberDto>}, a {@code Slice} if the count mode is {@link CountMode#NONE}
      */
-    Page<MemberDto> findAll(Pageable page);
+    Slice<MemberDto> findAll(Pageable page, CountMode countMode);
+
+    /**
+     * Retrieve the members after the cursor of the request.
+     * Only applicable for Admin.
+     *
+     * @param request the scroll request
+     * @return the page of members, with the cursor of the next page
+     */
+    CursorPage<MemberDto> scrollAll(ScrollRequest request);
 
     /**
      * Retrieve member detail for the current user
@@ -5,14 +5,18 @@ import com.asia.booklender.member.entity.Member;
 import com.asia.booklender.member.mapper.MemberMapper;
 import com.asia.booklender.member.repository.MemberRepository;
 import com.asia.booklender.member.service.MemberService;
+import com.asia.booklender.shared.api.CursorPage;
+import com.asia.booklender.shared.api.ScrollRequest;
+import com.asia.booklender.shared.enums.CountMode;
 import com.asia.booklender.shared.exception.AccessDeniedException;
 import com.asia.booklender.shared.exception.ResourceNotFoundException;
+import com.asia.booklender.shared.repository.TableStatisticsRepository;
 import com.asia.booklender.shared.security.CurrentUser;
 import com.asia.booklender.shared.security.SecurityUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,10 +29,11 @@ import org.springframework.transaction.annotation.Transactional;
 public class MemberServiceImpl implements MemberService {
     private final MemberRepository memberRepository;
     private final MemberMapper memberMapper;
+    private final TableStatisticsRepository tableStatisticsRepository;
 
     @Override
     @Transactional(readOnly = true)
-    public Page<MemberDto> findAll(Pageable page) {
+    public Slice<MemberDto> findAll(Pageable page, CountMode countMode) {
         CurrentUser currentUser = SecurityUtil.currentUser();
 
         // Reject non-admin users
@@ -37,11 +42,30 @@ public class MemberServiceImpl implements MemberService {
             throw new AccessDeniedException("Denied request for non-admin");
         }
 
-        return memberRepository
-                .findAll(page)
+        return tableStatisticsRepository
+                .read(countMode, page, "members", memberRepository::findAll, memberRepository::findSliceBy, memberRepository::count)
                 .map(memberMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MemberDto> scrollAll(ScrollRequest request) {
+        CurrentUser currentUser = SecurityUtil.currentUser();
+
+        // Reject non-admin users
+        if(currentUser == null || !currentUser.isAdmin()) {
+            log.warn("Unauthenticated user or Non-admin attempt to get all members. User: {}", currentUser);
+            throw new AccessDeniedException("Denied request for non-admin");
+        }
+
+        return CursorPage.of(
+                memberRepository
+                        .findAllBy(request.getPosition(), request.getLimit(), request.getSort())
+                        .map(memberMapper::toDto),
+                request,
+                request.isIncludeTotal() ? memberRepository.count() : null);
+    }
+
     @Override
     public MemberDto findMe() {
         CurrentUser currentUser = SecurityUtil.currentUser();
@@ -51,8 +75,10 @@ public class MemberServiceImpl implements MemberService {
             throw new AccessDeniedException("Denied request for non-authenticated user");
         }
 
-        Member me = memberRepository
-                .findByEmail(currentUser.getUsername())
+        // Primary key lookup when the token carries the member id
+        Member me = (currentUser.getMemberId() != null
+                ? memberRepository.findById(currentUser.getMemberId())
+                : memberRepository.findByEmail(currentUser.getUsername()))
                 .orElseThrow(() -> new ResourceNotFoundException("Member me not found with email: " + currentUser.getUsername()));
 
         return memberMapper.toDto(me);
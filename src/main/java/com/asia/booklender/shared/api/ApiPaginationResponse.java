@@ -7,6 +7,7 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -30,6 +31,41 @@ public class ApiPaginationResponse<T> extends ApiResponse<T> {
                         .totalPages(pageData.getTotalPages())
                         .pageSize(pageData.getSize())
                         .totalElements(pageData.getTotalElements())
+                        .approximateTotal(pageData instanceof ApproximatePage<?> ? true : null)
+                        .hasNext(pageData instanceof ApproximatePage<?> ? pageData.hasNext() : null)
+                        .build())
+                .data(pageData.getContent())
+                .build();
+    }
+
+    /**
+     * Builds the response of a page read without a total, or of a {@link Page} read as a {@link Slice}.
+     */
+    public static <T> ApiPaginationResponse<List<T>> success(Slice<T> sliceData) {
+        if (sliceData instanceof Page<T> pageData) {
+            return success(pageData);
+        }
+
+        return ApiPaginationResponse
+                .<List<T>>builder()
+                .result(Result.SUCCESS)
+                .pagination(PaginationMeta.builder()
+                        .currentPage(sliceData.getNumber())
+                        .pageSize(sliceData.getSize())
+                        .hasNext(sliceData.hasNext())
+                        .build())
+                .data(sliceData.getContent())
+                .build();
+    }
+
+    public static <T> ApiPaginationResponse<List<T>> success(CursorPage<T> pageData) {
+        return ApiPaginationResponse
+                .<List<T>>builder()
+                .result(Result.SUCCESS)
+                .pagination(PaginationMeta.builder()
+                        .pageSize(pageData.getPageSize())
+                        .totalElements(pageData.getTotalElements())
+                        .nextCursor(pageData.getNextCursor())
                         .build())
                 .data(pageData.getContent())
                 .build();
@@ -0,0 +1,53 @@
+package com.asia.booklender.shared.api;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page whose total is an estimate, see {@link com.asia.booklender.shared.enums.CountMode#APPROXIMATE}.
+ * <p>
+ * Whether a next page exists is known from the read of the page itself, not from the estimate: the total is
+ * raised above the current page when there is a next page, and is exact when there is none, so that the
+ * estimate never contradicts {@link #hasNext()}.
+ * </p>
+ */
+public class ApproximatePage<T> extends PageImpl<T> {
+    private final boolean hasNext;
+
+    public ApproximatePage(List<T> content, Pageable pageable, long approximateTotal, boolean hasNext) {
+        super(content, pageable, consistentTotal(content, pageable, approximateTotal, hasNext));
+        this.hasNext = hasNext;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Maps the content, keeping the total flagged as approximate.
+     */
+    @Override
+    public <U> Page<U> map(Function<? super T, ? extends U> converter) {
+        return new ApproximatePage<>(getConvertedContent(converter), getPageable(), getTotalElements(), hasNext);
+    }
+
+    private static long consistentTotal(List<?> content, Pageable pageable, long approximateTotal, boolean hasNext) {
+        if (pageable.isUnpaged()) {
+            return hasNext ? Math.max(approximateTotal, content.size() + 1L) : content.size();
+        }
+
+        long read = pageable.getOffset() + content.size();
+
+        if (hasNext) {
+            return Math.max(approximateTotal, read + 1);
+        }
+
+        // Past the last page, the total is at most the offset
+        return content.isEmpty() ? Math.min(approximateTotal, pageable.getOffset()) : read;
+    }
+}
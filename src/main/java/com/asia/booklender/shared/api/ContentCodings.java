@@ -0,0 +1,59 @@
+package com.asia.booklender.shared.api;
+
+import java.util.Locale;
+
+/**
+ * Content negotiation of pre-encoded response bodies, as per the {@code Accept-Encoding} request header.
+ */
+public final class ContentCodings {
+    private ContentCodings() {
+    }
+
+    /**
+     * Whether the client accepts gzip: listed as {@code gzip} (or {@code x-gzip}), or matched by {@code *},
+     * with a non-zero quality. An explicit {@code gzip;q=0} refuses it even if {@code *} is accepted.
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} header, null if absent
+     * @return true if a gzip body can be sent
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+
+        Double gzipQuality = null;
+        Double anyQuality = null;
+
+        for (String element : acceptEncoding.split(",")) {
+            String[] params = element.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = Math.max(gzipQuality == null ? 0 : gzipQuality, quality(params));
+            } else if (coding.equals("*")) {
+                anyQuality = quality(params);
+            }
+        }
+
+        double quality = gzipQuality != null ? gzipQuality : anyQuality != null ? anyQuality : 0;
+        return quality > 0;
+    }
+
+    /**
+     * @return the {@code q} parameter of a coding, 1 if absent, 0 if malformed
+     */
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+
+            if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,85 @@
+package com.asia.booklender.shared.api;
+
+import com.asia.booklender.shared.enums.EntitySortField;
+import com.asia.booklender.shared.exception.InvalidCursorException;
+import org.hibernate.query.SortDirection;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes keyset positions as opaque cursors: the {@code (sortField, id)} of the last row of a page,
+ * along with the sort it was issued for.
+ */
+public final class CursorCodec {
+    private static final String VERSION = "1";
+    private static final String ID = EntitySortField.ID.getFieldName();
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Encodes the position after a row.
+     *
+     * @param position the keyset position of the row
+     * @param sortField the sort field of the page
+     * @param direction the sort direction of the page
+     * @return the opaque cursor
+     */
+    public static String encode(KeysetScrollPosition position, EntitySortField sortField, SortDirection direction) {
+        Map<String, Object> keys = position.getKeys();
+        String raw = String.join("|",
+                VERSION,
+                sortField.getFieldName(),
+                direction.name(),
+                String.valueOf(keys.get(sortField.getFieldName())),
+                String.valueOf(keys.get(ID)));
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor, a blank cursor being the start of the first page.
+     *
+     * @param cursor the opaque cursor
+     * @param sortField the requested sort field
+     * @param direction the requested sort direction
+     * @return the keyset position to scroll forward from
+     * @throws InvalidCursorException if the cursor is malformed or was issued for another sort
+     */
+    public static KeysetScrollPosition decode(String cursor, EntitySortField sortField, SortDirection direction) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+
+        if (!parts[1].equals(sortField.getFieldName()) || !parts[2].equals(direction.name())) {
+            throw new InvalidCursorException("Cursor was issued for another sort field or direction");
+        }
+
+        try {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sortField.getFieldName(), sortField == EntitySortField.ID ? Long.valueOf(parts[3]) : Instant.parse(parts[3]));
+            keys.put(ID, Long.valueOf(parts[4]));
+            return ScrollPosition.forward(keys);
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
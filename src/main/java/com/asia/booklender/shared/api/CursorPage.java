@@ -0,0 +1,43 @@
+package com.asia.booklender.shared.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+
+/**
+ * A page read by keyset, with the cursor of the next page.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private final List<T> content;
+    private final int pageSize;
+
+    /* null on the last page */
+    private final String nextCursor;
+
+    /* null unless requested */
+    private final Long totalElements;
+
+    /**
+     * Builds a page from a window read with the given request.
+     *
+     * @param window the window, possibly mapped to DTOs
+     * @param request the scroll request the window was read with
+     * @param totalElements the total count, null if not requested
+     * @return the page
+     */
+    public static <T> CursorPage<T> of(Window<T> window, ScrollRequest request, Long totalElements) {
+        String nextCursor = null;
+
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = CursorCodec.encode(last, request.getSortField(), request.getSortDirection());
+        }
+
+        return new CursorPage<>(window.getContent(), request.getLimit().max(), nextCursor, totalElements);
+    }
+}
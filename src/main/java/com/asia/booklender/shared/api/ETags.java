@@ -0,0 +1,26 @@
+package com.asia.booklender.shared.api;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Builds entity tags from the parts that identify a representation, e.g. a resource id and its version.
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    /**
+     * @return a strong entity tag, for representations that are byte-identical while the parts are unchanged
+     */
+    public static String strong(Object... parts) {
+        return Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    /**
+     * @return a weak entity tag, for representations that are equivalent while the parts are unchanged
+     */
+    public static String weak(Object... parts) {
+        return "W/" + strong(parts);
+    }
+}
@@ -15,4 +15,11 @@ public class PaginationMeta {
     private Integer pageSize;
     private Long totalElements;
     private Integer totalPages;
+
+    /* true when totalElements and totalPages are estimates */
+    private Boolean approximateTotal;
+
+    /* Set when there is no total */
+    private Boolean hasNext;
+    private String nextCursor;
 }
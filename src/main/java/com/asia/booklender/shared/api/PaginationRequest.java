@@ -1,5 +1,6 @@
 package com.asia.booklender.shared.api;
 
+import com.asia.booklender.shared.enums.CountMode;
 import com.asia.booklender.shared.enums.EntitySortField;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -8,10 +9,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.query.SortDirection;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+/**
+ * Pagination parameters of the listing endpoints.
+ * <p>
+ * Offset mode (default) reads {@code page} and counts the total as per {@code count}. Cursor mode, selected by the {@code cursor}
+ * parameter (empty for the first page), seeks after the {@code (sortField, id)} of the previous page instead of
+ * skipping rows, and only counts the total when {@code includeTotal} is set.
+ * </p>
+ */
 @Data
 @Builder
 @AllArgsConstructor
@@ -32,6 +42,39 @@ public class PaginationRequest {
     @Builder.Default
     private EntitySortField sortField = EntitySortField.ID;
 
+    /* How the total is counted in offset mode */
+    @Builder.Default
+    private CountMode count = CountMode.EXACT;
+
+    /* Opaque cursor of the next page, empty for the first page in cursor mode */
+    private String cursor;
+
+    @Builder.Default
+    private Boolean includeTotal = false;
+
+    public boolean isCursorMode() {
+        return cursor != null;
+    }
+
+    public ScrollRequest toScrollRequest() {
+        Sort.Direction direction = sortDirection == SortDirection.ASCENDING ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        // The id breaks ties, so that the keyset is unique
+        Sort sort = sortField == EntitySortField.ID
+                ? Sort.by(direction, sortField.getFieldName())
+                : Sort.by(direction, sortField.getFieldName(), EntitySortField.ID.getFieldName());
+
+        return ScrollRequest
+                .builder()
+                .position(CursorCodec.decode(cursor, sortField, sortDirection))
+                .limit(Limit.of(size))
+                .sort(sort)
+                .sortField(sortField)
+                .sortDirection(sortDirection)
+                .includeTotal(Boolean.TRUE.equals(includeTotal))
+                .build();
+    }
+
     public Pageable toPageable() {
         Sort sort = sortDirection == SortDirection.ASCENDING ?
                 Sort.by(sortField.getFieldName()).ascending() :
@@ -17,6 +17,10 @@ public enum Result {
     LOAN_OVERDUE("F", "LOAN_OVERDUE", "User has loan overdue"),
     ACCESS_DENIED("F", "ACCESS_DENIED", "User is not authorized to access the service"),
     LOAN_ALREADY_RETURNED("F", "LOAN_ALREADY_RETURNED", "The loan has been returned previously"),
+    CONCURRENT_UPDATE("F", "CONCURRENT_UPDATE", "The resource was updated concurrently, please retry"),
+    LOCK_UNAVAILABLE("F", "LOCK_UNAVAILABLE", "The resource is locked by another request, please retry"),
+    SERVICE_BUSY("F", "SERVICE_BUSY", "The service is busy, please retry"),
+    SYNC_TOKEN_EXPIRED("F", "SYNC_TOKEN_EXPIRED", "The sync token expired, please reload the snapshot"),
     INTERNAL_ERROR("F", "UNKNOWN_ERROR", "Unknown Error");
 
     private final String result;
@@ -0,0 +1,23 @@
+package com.asia.booklender.shared.api;
+
+import com.asia.booklender.shared.enums.EntitySortField;
+import lombok.Builder;
+import lombok.Getter;
+import org.hibernate.query.SortDirection;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+/**
+ * A cursor page request: scroll forward from a keyset position, sorted by {@code (sortField, id)}.
+ */
+@Getter
+@Builder
+public class ScrollRequest {
+    private final KeysetScrollPosition position;
+    private final Limit limit;
+    private final Sort sort;
+    private final EntitySortField sortField;
+    private final SortDirection sortDirection;
+    private final boolean includeTotal;
+}
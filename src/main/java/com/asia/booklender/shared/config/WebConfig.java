@@ -0,0 +1,20 @@
+package com.asia.booklender.shared.config;
+
+import com.asia.booklender.shared.enums.CountMode;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Locale;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    /**
+     * Binds {@code count=exact|approximate|none} regardless of case.
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, CountMode.class,
+                source -> CountMode.valueOf(source.trim().toUpperCase(Locale.ROOT)));
+    }
+}
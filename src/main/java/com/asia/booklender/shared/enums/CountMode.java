@@ -0,0 +1,15 @@
+package com.asia.booklender.shared.enums;
+
+/**
+ * How the total of a paginated listing is counted.
+ */
+public enum CountMode {
+    /* COUNT(*), exact but as costly as a scan of the table */
+    EXACT,
+
+    /* Planner estimate of the table row count, cached */
+    APPROXIMATE,
+
+    /* No total, the page only tells whether a next page exists */
+    NONE
+}
@@ -1,5 +1,27 @@
 package com.asia.booklender.shared.enums;
 
+/**
+ * Concurrency strategy used to update the book inventory.
+ */
 public enum LockStrategy {
-    OPTIMISTIC, PESSIMISTIC
+    /* Adaptive hybrid: optimistic for high inventory, pessimistic at or below the low inventory threshold */
+    HYBRID,
+
+    /* Version-checked update of the book entity */
+    OPTIMISTIC,
+
+    /* Database row lock (SELECT ... FOR UPDATE) before the update */
+    PESSIMISTIC,
+
+    /* Database row lock taken with NOWAIT, failing immediately when the row is already locked */
+    NOWAIT,
+
+    /* Single guarded UPDATE statement, the affected-row count decides the outcome */
+    ATOMIC_UPDATE,
+
+    /* Chosen per book from its tracked contention: optimistic, pessimistic or atomic update as contention grows */
+    ADAPTIVE,
+
+    /* Allocate a physical copy (book_copies) with FOR UPDATE SKIP LOCKED, the book row is not touched */
+    COPY_ALLOCATION
 }
@@ -1,13 +1,22 @@
 package com.asia.booklender.shared.exception;
 
+import com.asia.booklender.auth.exception.LoginCapacityExceededException;
+import com.asia.booklender.book.exception.SnapshotNotReadyException;
+import com.asia.booklender.book.exception.SyncTokenExpiredException;
+import com.asia.booklender.loan.exception.BookLockUnavailableException;
 import com.asia.booklender.loan.exception.BookNotAvailableException;
+import com.asia.booklender.loan.exception.BorrowQueueTimeoutException;
 import com.asia.booklender.loan.exception.LoanAlreadyReturnedException;
 import com.asia.booklender.loan.exception.MaxLoansExceededException;
 import com.asia.booklender.loan.exception.OverdueLoanException;
 import com.asia.booklender.shared.api.ApiResponse;
 import com.asia.booklender.shared.api.Result;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import io.jsonwebtoken.JwtException;
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -17,6 +26,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.Arrays;
+import java.util.stream.Collectors;
 
 @RestControllerAdvice
 @Slf4j
@@ -33,6 +43,17 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.UNAUTHORIZED, Result.BAD_CREDENTIALS, "Bad username/password");
     }
 
+    /**
+     * Handle an invalid token given in a request body or header, e.g. to revoke it.
+     *
+     * @return HTTP 401 Unauthorized.
+     */
+    @ExceptionHandler(JwtException.class)
+    public ResponseEntity<ApiResponse> handleInvalidToken(JwtException ex) {
+        log.warn("Invalid token: {}", ex.getMessage());
+        return buildResponse(HttpStatus.UNAUTHORIZED, Result.BAD_CREDENTIALS, "Invalid token");
+    }
+
     /**
      * Handle bad request.
      *
@@ -44,6 +65,46 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.BAD_REQUEST, Result.PARAM_ILLEGAL, ex.getMessage());
     }
 
+    /**
+     * Handle a request parameter or path variable violating its constraints, e.g. {@code @Max}.
+     *
+     * @param ex {@link ConstraintViolationException}
+     * @return HTTP 400 Bad Request.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ApiResponse> handleConstraintViolation(ConstraintViolationException ex) {
+        String message = ex
+                .getConstraintViolations()
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+
+        return buildResponse(HttpStatus.BAD_REQUEST, Result.PARAM_ILLEGAL, message);
+    }
+
+    /**
+     * Handle a pagination cursor that is malformed or does not match the requested sort.
+     *
+     * @param ex {@link InvalidCursorException}
+     * @return HTTP 400 Bad Request.
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiResponse> handleInvalidCursor(InvalidCursorException ex) {
+        return buildResponse(HttpStatus.BAD_REQUEST, Result.PARAM_ILLEGAL, ex.getMessage());
+    }
+
+    /**
+     * Handle a sync token older than the deletion history.
+     *
+     * @param ex {@link SyncTokenExpiredException}
+     * @return HTTP 410 Gone
+     */
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<ApiResponse> handleSyncTokenExpired(SyncTokenExpiredException ex) {
+        return buildResponse(HttpStatus.GONE, Result.SYNC_TOKEN_EXPIRED, ex.getMessage());
+    }
+
     /**
      * Handle resource not found.
      *
@@ -128,6 +189,86 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.BAD_REQUEST, Result.LOAN_ALREADY_RETURNED, ex.getMessage());
     }
 
+    /**
+     * Handle a concurrent update that could not be resolved by retrying.
+     * @param ex {@link OptimisticLockingFailureException}
+     * @return HTTP 409 Conflict
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse> handleConcurrentUpdate(OptimisticLockingFailureException ex) {
+        log.warn("Concurrent update conflict: {}", ex.getMessage());
+        return buildResponse(HttpStatus.CONFLICT, Result.CONCURRENT_UPDATE, "The resource was updated concurrently, please retry");
+    }
+
+    /**
+     * Handle a book lock that could not be acquired without waiting, or within the lock timeout.
+     * @param ex {@link BookLockUnavailableException}
+     * @return HTTP 409 Conflict, with Retry-After
+     */
+    @ExceptionHandler(BookLockUnavailableException.class)
+    public ResponseEntity<ApiResponse> handleLockUnavailable(BookLockUnavailableException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse
+                        .builder()
+                        .result(Result.LOCK_UNAVAILABLE)
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    /**
+     * Handle a coalesced borrow that was not processed in time.
+     * @param ex {@link BorrowQueueTimeoutException}
+     * @return HTTP 503 Service Unavailable, with Retry-After
+     */
+    @ExceptionHandler(BorrowQueueTimeoutException.class)
+    public ResponseEntity<ApiResponse> handleBorrowQueueTimeout(BorrowQueueTimeoutException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse
+                        .builder()
+                        .result(Result.SERVICE_BUSY)
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    /**
+     * Handle a catalog snapshot requested before its first build completed.
+     * @param ex {@link SnapshotNotReadyException}
+     * @return HTTP 503 Service Unavailable, with Retry-After
+     */
+    @ExceptionHandler(SnapshotNotReadyException.class)
+    public ResponseEntity<ApiResponse> handleSnapshotNotReady(SnapshotNotReadyException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse
+                        .builder()
+                        .result(Result.SERVICE_BUSY)
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    /**
+     * Handle a login rejected because the login lane is full.
+     * @param ex {@link LoginCapacityExceededException}
+     * @return HTTP 503 Service Unavailable, with Retry-After
+     */
+    @ExceptionHandler(LoginCapacityExceededException.class)
+    public ResponseEntity<ApiResponse> handleLoginCapacityExceeded(LoginCapacityExceededException ex) {
+        log.warn("Login rejected: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse
+                        .builder()
+                        .result(Result.SERVICE_BUSY)
+                        .message(ex.getMessage())
+                        .build());
+    }
+
     /**
      * Handle generic/undefined exception.
      *
@@ -0,0 +1,10 @@
+package com.asia.booklender.shared.exception;
+
+/**
+ * Exception thrown when a pagination cursor cannot be decoded, or was issued for another sort.
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,108 @@
+package com.asia.booklender.shared.repository;
+
+import com.asia.booklender.shared.api.ApproximatePage;
+import com.asia.booklender.shared.enums.CountMode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate row counts of whole tables, from the Postgres planner statistics ({@code pg_class.reltuples}).
+ * <p>
+ * The estimate is maintained by autovacuum/analyze, reading it is a catalog lookup instead of a table scan.
+ * Estimates are cached for {@code pagination.approximate-count.ttl-ms}. A table never analyzed has no estimate,
+ * it is then counted exactly, and the result cached the same way.
+ * </p>
+ */
+@Repository
+@Slf4j
+public class TableStatisticsRepository {
+    private static final String ESTIMATE_ROW_COUNT_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMs;
+
+    private final ConcurrentMap<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    public TableStatisticsRepository(JdbcTemplate jdbcTemplate,
+                                     @Value("${pagination.approximate-count.ttl-ms:60000}") long ttlMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Reads a page of a whole table, with its total counted as requested.
+     *
+     * @param countMode how to count the total
+     * @param pageable the page
+     * @param table the table name, for approximate counts
+     * @param counted reads the page with an exact count
+     * @param sliced reads the page without any count
+     * @param exactCount exact count, when the table has no estimate yet
+     * @return a {@link Page} for exact counts, an {@link ApproximatePage} for approximate counts, a {@link Slice} otherwise
+     */
+    public <T> Slice<T> read(CountMode countMode,
+                             Pageable pageable,
+                             String table,
+                             Function<Pageable, Page<T>> counted,
+                             Function<Pageable, Slice<T>> sliced,
+                             LongSupplier exactCount) {
+        return switch (countMode) {
+            case EXACT -> counted.apply(pageable);
+            case NONE -> sliced.apply(pageable);
+            case APPROXIMATE -> {
+                Slice<T> slice = sliced.apply(pageable);
+                yield new ApproximatePage<>(slice.getContent(), pageable, estimateRowCount(table, exactCount), slice.hasNext());
+            }
+        };
+    }
+
+    /**
+     * Estimates the row count of a table.
+     *
+     * @param table the table name
+     * @param exactCount exact count, when the table has no estimate yet
+     * @return the estimated row count
+     */
+    public long estimateRowCount(String table, LongSupplier exactCount) {
+        long now = System.currentTimeMillis();
+        Estimate cached = estimates.get(table);
+
+        if (cached != null && cached.expiresAt > now) {
+            return cached.rowCount;
+        }
+
+        Long reltuples = jdbcTemplate
+                .queryForList(ESTIMATE_ROW_COUNT_SQL, Long.class, table)
+                .stream()
+                .findFirst()
+                .orElse(null);
+
+        // -1 (or 0 before Postgres 14) until the table is first analyzed
+        long rowCount = reltuples != null && reltuples > 0 ? reltuples : exactCount.getAsLong();
+
+        estimates.put(table, new Estimate(rowCount, now + ttlMs));
+        log.debug("Estimated row count of {}: {}", table, rowCount);
+
+        return rowCount;
+    }
+
+    private static final class Estimate {
+        private final long rowCount;
+        private final long expiresAt;
+
+        private Estimate(long rowCount, long expiresAt) {
+            this.rowCount = rowCount;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
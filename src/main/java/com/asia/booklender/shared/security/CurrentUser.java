@@ -1,20 +1,65 @@
 package com.asia.booklender.shared.security;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
-import java.util.Set;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
 
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-public class CurrentUser {
-    private String username;
-    private Set<String> roles;
+/**
+ * Immutable principal of an authenticated request, built from the verified JWT claims.
+ * <p>
+ * Carries the member id and name, so that services can identify the member without any lookup,
+ * and the roles as a bitmask of {@link Role}.
+ * </p>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class CurrentUser implements Principal {
+    private final String username;
+    /* Null if the user has no member account, or for tokens issued without the memberId claim */
+    private final Long memberId;
+    private final String memberName;
+    private final int roles;
+    /* Id (jti) of the token the user authenticated with, null if not authenticated by token */
+    private final String tokenId;
+
+    public CurrentUser(String username, Long memberId, String memberName, int roles, String tokenId) {
+        this.username = username;
+        this.memberId = memberId;
+        this.memberName = memberName;
+        this.roles = roles;
+        this.tokenId = tokenId;
+    }
+
+    public boolean hasRole(Role role) {
+        return (roles & role.mask()) != 0;
+    }
 
     public boolean isAdmin() {
-        return !roles.isEmpty() && roles.stream().anyMatch(s -> s.equals(Role.ADMIN.getAuthority()));
+        return hasRole(Role.ADMIN);
     }
-}
 
+    /**
+     * @return the granted authorities of the roles of this user
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        List<GrantedAuthority> authorities = new ArrayList<>(Role.values().length);
+        for (Role role : Role.values()) {
+            if (hasRole(role)) {
+                authorities.add(new SimpleGrantedAuthority(role.getAuthority()));
+            }
+        }
+        return authorities;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -3,6 +3,8 @@ package com.asia.booklender.shared.security;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.Collection;
+
 @AllArgsConstructor
 @Getter
 public enum Role {
@@ -11,4 +13,27 @@ public enum Role {
 
     private final String role;
     private final String authority;
-}
\ No newline at end of file
+
+    /**
+     * Bit of this role in a role bitmask.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Builds the role bitmask of the given authorities, unknown authorities are ignored.
+     *
+     * @param authorities granted authorities, e.g. {@code ROLE_ADMIN}
+     * @return the role bitmask
+     */
+    public static int maskOf(Collection<String> authorities) {
+        int mask = 0;
+        for (Role role : values()) {
+            if (authorities.contains(role.authority)) {
+                mask |= role.mask();
+            }
+        }
+        return mask;
+    }
+}
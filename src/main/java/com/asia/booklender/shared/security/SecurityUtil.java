@@ -11,6 +11,9 @@ public class SecurityUtil {
 
     /**
      * Retrieves the currently authenticated user and its roles from Spring Security context.
+     * <p>
+     * For JWT authenticated requests, this is the principal built once by the JWT filter.
+     * </p>
      *
      * @return {@link CurrentUser} current user
      */
@@ -22,7 +25,11 @@ public class SecurityUtil {
             return null;
         }
 
-        // If authenticated, retrieve the username and roles
+        if (authentication.getPrincipal() instanceof CurrentUser currentUser) {
+            return currentUser;
+        }
+
+        // Authenticated by other means, retrieve the username and roles
         String username = authentication.getName(); // email
 
         Set<String> roles = authentication.getAuthorities()
@@ -30,6 +37,6 @@ public class SecurityUtil {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toSet());
 
-        return new CurrentUser(username, roles);
+        return new CurrentUser(username, null, null, Role.maskOf(roles), null);
     }
 }
@@ -20,18 +20,27 @@ SELECT * FROM (VALUES ('Domain-Driven Design', 'Eric Evans', '978-0321125217', 3
 WHERE NOT EXISTS (SELECT 1 FROM books WHERE isbn = '978-0321125217');
 
 -- Insert sample members only if they don't exist
-INSERT INTO members (name, email, created_by)
-SELECT * FROM (VALUES ('Admin', 'admin@booklender.com', 'admin@booklender.com')) AS tmp
+INSERT INTO members (name, email, password_hash, roles, enabled, created_by)
+SELECT * FROM (VALUES ('Admin', 'admin@booklender.com', '$2a$10$Aqx0mEXt1DTCtfTjzERgEOzaUgqFiNHU6lIHYTfTMOBzllS4umYkq', 'ROLE_ADMIN', true, 'admin@booklender.com')) AS tmp
 WHERE NOT EXISTS (SELECT 1 FROM members WHERE email = 'admin@booklender.com');
 
-INSERT INTO members (name, email, created_by)
-SELECT * FROM (VALUES ('Donald Trump', 'donald.trump@usa.com', 'donald.trump@usa.com')) AS tmp
+INSERT INTO members (name, email, password_hash, roles, enabled, created_by)
+SELECT * FROM (VALUES ('Donald Trump', 'donald.trump@usa.com', '$2a$10$mTWXMKZOmGdaRiFmGhd5kux4i6G9GAccCKNg2G55Hnn.tVYJMNo5C', 'ROLE_MEMBER', true, 'donald.trump@usa.com')) AS tmp
 WHERE NOT EXISTS (SELECT 1 FROM members WHERE email = 'donald.trump@usa.com');
 
-INSERT INTO members (name, email, created_by)
-SELECT * FROM (VALUES ('Barack Obama', 'barack.obama@usa.com', 'barack.obama@usa.com')) AS tmp
+INSERT INTO members (name, email, password_hash, roles, enabled, created_by)
+SELECT * FROM (VALUES ('Barack Obama', 'barack.obama@usa.com', '$2a$10$ypBP30wQhuX1kyGclo3.fuaeMUZ16ntuvxbZ/YXuKo46vLnvyYwHq', 'ROLE_MEMBER', true, 'barack.obama@usa.com')) AS tmp
 WHERE NOT EXISTS (SELECT 1 FROM members WHERE email = 'barack.obama@usa.com');
 
-INSERT INTO members (name, email, created_by)
-SELECT * FROM (VALUES ('John Rambo', 'john.rambo@usa.com', 'john.rambo@usa.com')) AS tmp
+INSERT INTO members (name, email, password_hash, roles, enabled, created_by)
+SELECT * FROM (VALUES ('John Rambo', 'john.rambo@usa.com', '$2a$10$U.hRK63Id5BlRMGmFRv13.CDBmBhfHbrpsyk1C8G9TBxKVrqquepy', 'ROLE_MEMBER', true, 'john.rambo@usa.com')) AS tmp
 WHERE NOT EXISTS (SELECT 1 FROM members WHERE email = 'john.rambo@usa.com');
+
+-- Credentials of sample members created before they moved to the members table
+UPDATE members SET password_hash = '$2a$10$Aqx0mEXt1DTCtfTjzERgEOzaUgqFiNHU6lIHYTfTMOBzllS4umYkq', roles = 'ROLE_ADMIN' WHERE email = 'admin@booklender.com' AND password_hash IS NULL;
+UPDATE members SET password_hash = '$2a$10$mTWXMKZOmGdaRiFmGhd5kux4i6G9GAccCKNg2G55Hnn.tVYJMNo5C', roles = 'ROLE_MEMBER' WHERE email = 'donald.trump@usa.com' AND password_hash IS NULL;
+UPDATE members SET password_hash = '$2a$10$ypBP30wQhuX1kyGclo3.fuaeMUZ16ntuvxbZ/YXuKo46vLnvyYwHq', roles = 'ROLE_MEMBER' WHERE email = 'barack.obama@usa.com' AND password_hash IS NULL;
+UPDATE members SET password_hash = '$2a$10$U.hRK63Id5BlRMGmFRv13.CDBmBhfHbrpsyk1C8G9TBxKVrqquepy', roles = 'ROLE_MEMBER' WHERE email = 'john.rambo@usa.com' AND password_hash IS NULL;
+
+-- Loans by member are served by idx_member_id (member_id, id), drop its redundant prefix index
+DROP INDEX IF EXISTS idx_member;
@@ -0,0 +1,168 @@
+package com.asia.booklender.loan.repository;
+
+import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.book.repository.BookRepository;
+import com.asia.booklender.loan.entity.Loan;
+import com.asia.booklender.loan.mapper.LoanMapper;
+import com.asia.booklender.member.entity.Member;
+import com.asia.booklender.member.repository.MemberRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The {@code @EntityGraph} read paths of {@link LoanRepository} load the loans with their book and member
+ * in the listing statement: mapping a page to {@code LoanDto} issues no statement per loan.
+ * <p>
+ * Statements are counted with the Hibernate {@link Statistics}.
+ * Runs against the Postgres of docker-compose, e.g. with the variables of {@code run.sh}.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@EnabledIfEnvironmentVariable(named = "SPRING_DATASOURCE_URL", matches = ".+")
+class LoanRepositoryFetchTest {
+    private static final int LOANS = 5;
+    private static final int PAGE_SIZE = 3;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private LoanMapper loanMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> loanIds = new ArrayList<>();
+    private Member member;
+    private Statistics statistics;
+
+    @BeforeEach
+    void createLoans() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        member = memberRepository.save(Member
+                .builder()
+                .name("Fetch")
+                .email("fetch-" + UUID.randomUUID() + "@test.com")
+                .createdBy("test")
+                .build());
+
+        for (int i = 0; i < LOANS; i++) {
+            Book book = bookRepository.save(Book
+                    .builder()
+                    .title("Fetch " + i)
+                    .author("Test")
+                    .isbn(UUID.randomUUID().toString())
+                    .totalCopies(1)
+                    .availableCopies(0)
+                    .createdBy("test")
+                    .build());
+            bookIds.add(book.getId());
+
+            Loan loan = loanRepository.save(Loan
+                    .builder()
+                    .book(book)
+                    .member(member)
+                    .dueAt(Instant.now().plus(Duration.ofDays(14)))
+                    .createdBy("test")
+                    .build());
+            loanIds.add(loan.getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM loans WHERE member_id = ?", member.getId());
+        memberRepository.deleteById(member.getId());
+        bookIds.forEach(bookRepository::deleteById);
+    }
+
+    @Test
+    void pagesOfAMemberLoadBooksAndMembersWithTheLoans() {
+        PageRequest page = PageRequest.of(0, PAGE_SIZE, Sort.by("id"));
+
+        // The page query and its count query
+        assertStatements(2, () -> loanRepository.findByMemberId(member.getId(), page).getContent());
+        assertStatements(2, () -> loanRepository.findByMemberIdAndReturnedAtIsNull(member.getId(), page).getContent());
+    }
+
+    @Test
+    void pagesOfAllLoansLoadBooksAndMembersWithTheLoans() {
+        PageRequest page = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "id"));
+
+        assertStatements(2, () -> loanRepository.findAllWithBookAndMember(page).getContent());
+        assertStatements(1, () -> loanRepository.findSliceWithBookAndMember(page).getContent());
+    }
+
+    @Test
+    void keysetWindowsLoadBooksAndMembersWithTheLoans() {
+        Limit limit = Limit.of(PAGE_SIZE);
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
+
+        assertStatements(1, () -> loanRepository.findAllBy(ScrollPosition.keyset(), limit, sort).getContent());
+        assertStatements(1, () -> loanRepository.findByMemberId(member.getId(), ScrollPosition.keyset(), limit, sort).getContent());
+        assertStatements(1, () -> loanRepository
+                .findByMemberIdAndReturnedAtIsNull(member.getId(), ScrollPosition.keyset(), limit, sort)
+                .getContent());
+    }
+
+    @Test
+    void singleLoanLoadsBookAndMemberWithTheLoan() {
+        assertStatements(1, () -> loanRepository.findWithBookAndMemberById(loanIds.get(0)).stream().toList());
+    }
+
+    /**
+     * Reads loans in a fresh persistence context and maps them to {@code LoanDto}, as the read paths do,
+     * touching the book and the member of every loan.
+     */
+    private void assertStatements(long expected, Supplier<List<Loan>> read) {
+        long statements = transactionTemplate.execute(status -> {
+            statistics.clear();
+
+            List<Loan> loans = read.get();
+            loans.forEach(loanMapper::toDto);
+
+            return statistics.getPrepareStatementCount();
+        });
+
+        assertEquals(expected, statements, "statements to read and map the loans");
+    }
+}
@@ -0,0 +1,161 @@
+package com.asia.booklender.loan.service.impl;
+
+import com.asia.booklender.book.entity.Book;
+import com.asia.booklender.book.repository.BookRepository;
+import com.asia.booklender.loan.config.LoanRulesConfig;
+import com.asia.booklender.loan.exception.MaxLoansExceededException;
+import com.asia.booklender.loan.repository.LoanRepository;
+import com.asia.booklender.loan.service.BorrowBookService;
+import com.asia.booklender.member.entity.Member;
+import com.asia.booklender.member.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parallel borrows of one member, each of a different book so that book locks do not serialize them:
+ * with the member guard, the member never ends up above the max active loans.
+ * <p>
+ * Runs against the Postgres of docker-compose, e.g. with the variables of {@code run.sh}.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=update",
+        "loan.rules.member-guard.enabled=true",
+        "loan.rules.borrow-lock-strategy=PESSIMISTIC",
+        "loan.rules.coalescing.enabled=false"
+})
+@EnabledIfEnvironmentVariable(named = "SPRING_DATASOURCE_URL", matches = ".+")
+class MemberBorrowGuardConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private BorrowBookService borrowBookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanRulesConfig borrowingRules;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void createBooks() {
+        for (int i = 0; i < THREADS; i++) {
+            Book book = Book
+                    .builder()
+                    .title("Stress " + i)
+                    .author("Test")
+                    .isbn(UUID.randomUUID().toString())
+                    .totalCopies(ROUNDS)
+                    .availableCopies(ROUNDS)
+                    .createdBy("test")
+                    .build();
+            bookIds.add(bookRepository.save(book).getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberIds.forEach(id -> jdbcTemplate.update("DELETE FROM loans WHERE member_id = ?", id));
+        memberIds.forEach(memberRepository::deleteById);
+        bookIds.forEach(bookRepository::deleteById);
+    }
+
+    @Test
+    void parallelBorrowsOfOneMemberNeverExceedMaxActiveLoans() throws Exception {
+        int maxActiveLoans = borrowingRules.getMaxActiveLoans();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Member member = newMember();
+
+            int granted = borrowInParallel(member);
+
+            assertEquals(maxActiveLoans, granted, "granted borrows in round " + round);
+            assertEquals(maxActiveLoans, loanRepository.countByMemberIdAndReturnedAtIsNull(member.getId()),
+                    "active loans in round " + round);
+        }
+    }
+
+    /**
+     * Borrows every book at once for the member.
+     *
+     * @return the number of granted borrows
+     */
+    private int borrowInParallel(Member member) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (Long bookId : bookIds) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> borrowBookService.borrow(bookId, member));
+                        return true;
+                    } catch (MaxLoansExceededException ex) {
+                        return false;
+                    }
+                }));
+            }
+
+            start.countDown();
+
+            int granted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    granted++;
+                }
+            }
+            return granted;
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        }
+    }
+
+    private Member newMember() {
+        Member member = memberRepository.save(Member
+                .builder()
+                .name("Stress")
+                .email("stress-" + UUID.randomUUID() + "@test.com")
+                .createdBy("test")
+                .build());
+        memberIds.add(member.getId());
+        return member;
+    }
+}